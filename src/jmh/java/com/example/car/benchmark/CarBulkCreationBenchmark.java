@@ -0,0 +1,89 @@
+package com.example.car.benchmark;
+
+import com.example.car.CarApplication;
+import com.example.car.entity.Car;
+import com.example.car.service.CarService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput, in cars per second, of creating {@value #CARS} cars with one bulk call
+ * against {@value #CARS} separate {@link CarService#createCar()} calls, on an embedded H2 database.
+ * The tables are emptied before each iteration so the database does not grow across the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CarBulkCreationBenchmark {
+
+    static final int CARS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private CarService carService;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(CarApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:car_bulk_benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.car=OFF")
+                .run();
+        carService = context.getBean(CarService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTables() {
+        jdbcTemplate.execute("delete from car");
+        jdbcTemplate.execute("delete from engine");
+        jdbcTemplate.execute("delete from fuel_tank");
+        jdbcTemplate.execute("delete from dashboard");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CARS)
+    public List<Long> createCarsInBulk() {
+        return carService.createCars(CARS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CARS)
+    public Car createCarsOneByOne() {
+        Car car = null;
+        for (int i = 0; i < CARS; i++) {
+            car = carService.createCar();
+        }
+        return car;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.car.benchmark;
+
+import com.example.car.dto.CarPage;
+import com.example.car.dto.CarResponse;
+import com.example.car.dto.CarSummary;
+import com.example.car.messages.MessageCollector;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes a single {@link CarResponse} and a {@link CarPage} of 100 cars as JSON, Smile and CBOR,
+ * with the ObjectMapper setup the application's converters use. The payload sizes are printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarEncodingBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    private ObjectWriter responseWriter;
+    private ObjectReader responseReader;
+    private ObjectWriter pageWriter;
+    private ObjectReader pageReader;
+    private CarResponse response;
+    private CarPage page;
+    private byte[] encodedResponse;
+    private byte[] encodedPage;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Spring Boot adds the parameter names module, the creators of the value classes rely on it
+        ObjectMapper objectMapper = builder(format)
+                .modulesToInstall(new ParameterNamesModule())
+                .filters(new SimpleFilterProvider().addFilter(CarResponse.FIELD_FILTER, SimpleBeanPropertyFilter.serializeAll()))
+                .build();
+        responseWriter = objectMapper.writerFor(CarResponse.class);
+        responseReader = objectMapper.readerFor(CarResponse.class);
+        pageWriter = objectMapper.writerFor(CarPage.class);
+        pageReader = objectMapper.readerFor(CarPage.class);
+
+        response = new CarResponse(1234L, true, 45, MessageCollector.CAR_STARTED);
+        List<CarSummary> cars = new ArrayList<>();
+        for (long carId = 1001; carId <= 1100; carId++) {
+            cars.add(new CarSummary(carId, carId % 2 == 0, (int) (carId % 60)));
+        }
+        page = new CarPage(cars, 1100L);
+        encodedResponse = responseWriter.writeValueAsBytes(response);
+        encodedPage = pageWriter.writeValueAsBytes(page);
+        System.out.printf("%n%s: car response %d bytes, page of 100 cars %d bytes%n", format, encodedResponse.length, encodedPage.length);
+    }
+
+    private static Jackson2ObjectMapperBuilder builder(String format) {
+        switch (format) {
+            case "smile":
+                return Jackson2ObjectMapperBuilder.smile();
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.cbor();
+            default:
+                return Jackson2ObjectMapperBuilder.json();
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeCarResponse() throws Exception {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public CarResponse decodeCarResponse() throws Exception {
+        return responseReader.readValue(encodedResponse);
+    }
+
+    @Benchmark
+    public byte[] encodeCarPage() throws Exception {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public CarPage decodeCarPage() throws Exception {
+        return pageReader.readValue(encodedPage);
+    }
+}
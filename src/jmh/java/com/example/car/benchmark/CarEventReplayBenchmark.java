@@ -0,0 +1,167 @@
+package com.example.car.benchmark;
+
+import com.example.car.CarApplication;
+import com.example.car.dto.CarEvent;
+import com.example.car.dto.CarEventType;
+import com.example.car.entity.Car;
+import com.example.car.entity.Dashboard;
+import com.example.car.entity.Engine;
+import com.example.car.entity.FuelTank;
+import com.example.car.repository.CarRepository;
+import com.example.car.service.CarEventJournal;
+import com.example.car.service.CarService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast cars are rebuilt in event-sourced mode, once by applying a million in-memory events
+ * and once by reading the event tail of a single car from the journal on an embedded H2 database,
+ * with and without a recent snapshot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class CarEventReplayBenchmark {
+
+    private static final int CARS = 1000;
+    private static final int CARS_IN_DATABASE = 100;
+    private static final int EVENTS_IN_DATABASE = 1_000_000;
+    private static final int SNAPSHOT_TAIL = 100;
+
+    @State(Scope.Benchmark)
+    public static class InMemoryEvents {
+
+        @Param({"1000000", "5000000"})
+        public int events;
+
+        List<CarEvent> journal;
+
+        @Setup
+        public void setUp() {
+            journal = events(events, CARS);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EmbeddedDatabase {
+
+        ConfigurableApplicationContext context;
+        CarRepository carRepository;
+        CarEventJournal carEventJournal;
+        Long fullReplayCarId;
+        Long snapshotCarId;
+
+        @Setup
+        public void setUp() {
+            context = new SpringApplicationBuilder(CarApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(
+                            "spring.datasource.url=jdbc:h2:mem:car_replay_benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                            "spring.datasource.username=sa",
+                            "spring.datasource.password=",
+                            "car.event-sourcing.enabled=true",
+                            "car.event-sourcing.journal-flush-interval-ms=600000",
+                            "car.write-behind.flush-interval-ms=600000",
+                            "logging.level.root=WARN",
+                            "logging.level.com.example.car=OFF")
+                    .run();
+            carRepository = context.getBean(CarRepository.class);
+            carEventJournal = context.getBean(CarEventJournal.class);
+
+            List<Long> carIds = context.getBean(CarService.class).createCars(CARS_IN_DATABASE);
+            for (CarEvent event : events(EVENTS_IN_DATABASE, CARS_IN_DATABASE)) {
+                carEventJournal.append(new CarEvent(carIds.get(event.getCarId().intValue()), event.getSeq(),
+                        event.getType(), event.getFuelDelta(), event.getRecordedAt()));
+            }
+            carEventJournal.flush();
+
+            // every car holds the same number of events, the second one has a snapshot shortly before its end
+            fullReplayCarId = carIds.get(0);
+            snapshotCarId = carIds.get(1);
+            long eventsPerCar = EVENTS_IN_DATABASE / CARS_IN_DATABASE;
+            context.getBean(JdbcTemplate.class).update("update car set event_seq = ? where id = ?",
+                    eventsPerCar - SNAPSHOT_TAIL, snapshotCarId);
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Car[] replayInMemory(InMemoryEvents state) {
+        Car[] cars = new Car[CARS];
+        for (int i = 0; i < CARS; i++) {
+            cars[i] = newCar((long) i);
+        }
+        for (CarEvent event : state.journal) {
+            CarEventJournal.apply(cars[event.getCarId().intValue()], event);
+        }
+        return cars;
+    }
+
+    @Benchmark
+    public Car rebuildWithoutSnapshot(EmbeddedDatabase state) {
+        return rebuild(state, state.fullReplayCarId);
+    }
+
+    @Benchmark
+    public Car rebuildFromSnapshot(EmbeddedDatabase state) {
+        return rebuild(state, state.snapshotCarId);
+    }
+
+    // Loads the snapshot row of the car and applies the events after it, as the store does on a cache miss
+    private static Car rebuild(EmbeddedDatabase state, Long carId) {
+        Car car = state.carRepository.findWithPartsById(carId).orElseThrow();
+        state.carEventJournal.replay(Collections.singletonList(car));
+        return car;
+    }
+
+    // Deterministic mix of starts, stops, refuels and failures, spread round-robin over the cars
+    private static List<CarEvent> events(int count, int cars) {
+        CarEventType[] cycle = {CarEventType.REFUELED, CarEventType.CAR_STARTED, CarEventType.CAR_STOPPED,
+                CarEventType.ENGINE_FAILED, CarEventType.CAR_STARTED, CarEventType.CAR_STOPPED};
+        Instant recordedAt = Instant.parse("2024-01-01T00:00:00Z");
+        long[] seqs = new long[cars];
+        List<CarEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int car = i % cars;
+            CarEventType type = cycle[(i / cars) % cycle.length];
+            int fuelDelta = type == CarEventType.REFUELED ? 10 : type == CarEventType.CAR_STARTED ? -5 : 0;
+            events.add(new CarEvent((long) car, ++seqs[car], type, fuelDelta, recordedAt));
+        }
+        return events;
+    }
+
+    private static Car newCar(Long id) {
+        Car car = new Car();
+        car.setId(id);
+        car.setEngine(new Engine());
+        car.setFuelTank(new FuelTank());
+        car.setDashboard(new Dashboard());
+        return car;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.car.benchmark;
+
+import com.example.car.dto.CarResponse;
+import com.example.car.entity.Car;
+import com.example.car.entity.Dashboard;
+import com.example.car.entity.Engine;
+import com.example.car.entity.FuelTank;
+import com.example.car.messages.MessageCollector;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the {@link Car} graph the mutation endpoints used to return, compared with the
+ * flat {@link CarResponse} they return now, in full and narrowed down to two fields with {@code ?fields=}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter selectedFieldsWriter;
+    private Car car;
+    private CarResponse response;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper().setFilterProvider(new SimpleFilterProvider()
+                .addFilter(CarResponse.FIELD_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+        selectedFieldsWriter = objectMapper.writer(new SimpleFilterProvider()
+                .addFilter(CarResponse.FIELD_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept("fuelLevel", "running")));
+
+        Engine engine = new Engine();
+        engine.setId(2L);
+        engine.setRunning(true);
+        FuelTank fuelTank = new FuelTank();
+        fuelTank.setId(3L);
+        Dashboard dashboard = new Dashboard();
+        dashboard.setId(4L);
+        dashboard.setCurrentMessage(MessageCollector.carRefueled(20, 70));
+
+        car = new Car();
+        car.setId(1L);
+        car.setEngine(engine);
+        car.setFuelTank(fuelTank);
+        car.setDashboard(dashboard);
+        json = objectMapper.writeValueAsBytes(car);
+        response = CarResponse.from(car);
+    }
+
+    @Benchmark
+    public byte[] serializeCar() throws Exception {
+        return objectMapper.writeValueAsBytes(car);
+    }
+
+    @Benchmark
+    public byte[] serializeCarResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeCarResponseSelectedFields() throws Exception {
+        return selectedFieldsWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public Car deserializeCar() throws Exception {
+        return objectMapper.readValue(json, Car.class);
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.car.benchmark;
+
+import com.example.car.CarApplication;
+import com.example.car.dto.FuelLevelView;
+import com.example.car.entity.Car;
+import com.example.car.entity.Dashboard;
+import com.example.car.entity.Engine;
+import com.example.car.entity.FuelTank;
+import com.example.car.exceptions.EngineFailureException;
+import com.example.car.repository.CarRepository;
+import com.example.car.repository.EngineRepository;
+import com.example.car.repository.FuelTankRepository;
+import com.example.car.service.CarMetrics;
+import com.example.car.service.CarService;
+import com.example.car.service.CarStateEventBus;
+import com.example.car.service.CarStatusCache;
+import com.example.car.service.DashboardEventChannel;
+import com.example.car.service.FixedProbabilityFailureModel;
+import com.example.car.service.FuelTelemetry;
+import com.example.car.service.OptimisticLockRetry;
+import com.example.car.service.SeededRandom;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Measures the {@link CarService} operations once against a mocked {@link CarRepository}, which isolates the
+ * service logic, and once against the full application context on an embedded H2 database.
+ * Application logging is switched off so console output does not dominate the results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarServiceBenchmark {
+
+    // Large enough that the tank never runs empty during a run, so only the success path is measured
+    private static final int FULL_TANK = 2_000_000_000;
+    private static final long SEED = 42;
+
+    @State(Scope.Benchmark)
+    public static class MockedRepository {
+
+        CarService carService;
+        Car car;
+
+        @Setup
+        public void setUp() {
+            ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.example.car")).setLevel(ch.qos.logback.classic.Level.OFF);
+
+            car = new Car();
+            car.setId(1L);
+            car.setEngine(new Engine());
+            car.setFuelTank(new FuelTank());
+            car.setDashboard(new Dashboard());
+
+            // stubOnly keeps Mockito from recording every invocation during the run
+            CarRepository carRepository = mock(CarRepository.class, withSettings().stubOnly());
+            when(carRepository.findWithPartsById(anyLong())).thenReturn(Optional.of(car));
+            when(carRepository.findFuelLevelById(anyLong())).thenReturn(Optional.of(new FuelLevelView(1L, 50)));
+
+            FuelTankRepository fuelTankRepository = mock(FuelTankRepository.class, withSettings().stubOnly());
+            when(fuelTankRepository.consumeFuel(anyLong(), anyInt())).thenReturn(1);
+            when(fuelTankRepository.addFuel(anyLong(), anyInt())).thenReturn(1);
+            when(fuelTankRepository.findFuelLevelById(anyLong())).thenReturn(50);
+            EngineRepository engineRepository = mock(EngineRepository.class, withSettings().stubOnly());
+            when(engineRepository.countStart(anyLong())).thenReturn(1);
+
+            // there is no transaction manager here, the operations run directly
+            OptimisticLockRetry optimisticLockRetry = mock(OptimisticLockRetry.class, withSettings().stubOnly());
+            when(optimisticLockRetry.execute(anyString(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            carService = new CarService(
+                    carRepository,
+                    fuelTankRepository,
+                    engineRepository,
+                    new DashboardEventChannel(meterRegistry, 10_000),
+                    new CarStatusCache(meterRegistry, false, 0, 0),
+                    optimisticLockRetry,
+                    new CarMetrics(meterRegistry, carRepository),
+                    new FixedProbabilityFailureModel(0.1, new SeededRandom(SEED)),
+                    new CarStateEventBus(meterRegistry, 1, 256, true, CarStateEventBus.OverflowPolicy.DROP_OLDEST),
+                    new FuelTelemetry(null, 3600, 10, 10, 0),
+                    Optional.empty(),
+                    Optional.empty());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EmbeddedDatabase {
+
+        @Param({"true", "false"})
+        public String statusCache;
+
+        ConfigurableApplicationContext context;
+        CarService carService;
+        JdbcTemplate jdbcTemplate;
+        Car car;
+
+        @Setup
+        public void setUp() {
+            context = new SpringApplicationBuilder(CarApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(
+                            "spring.datasource.url=jdbc:h2:mem:car_benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                            "spring.datasource.username=sa",
+                            "spring.datasource.password=",
+                            "car.status-cache.enabled=" + statusCache,
+                            "car.engine-failure.seed=" + SEED,
+                            "logging.level.root=WARN",
+                            "logging.level.com.example.car=OFF")
+                    .run();
+            carService = context.getBean(CarService.class);
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+            car = carService.createCar();
+        }
+
+        @Setup(Level.Iteration)
+        public void fillTank() {
+            jdbcTemplate.update("update fuel_tank set fuel_level = ? where id = ?", FULL_TANK, car.getFuelTank().getId());
+            context.getBean(CarStatusCache.class).invalidateAll();
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Car startCarMocked(MockedRepository state) {
+        state.car.getFuelTank().setFuelLevel(FULL_TANK);
+        return startCar(state.carService, state.car.getId());
+    }
+
+    @Benchmark
+    public Car refuelCarMocked(MockedRepository state) {
+        state.car.getFuelTank().setFuelLevel(0);
+        return state.carService.refuelCar(state.car.getId(), 20);
+    }
+
+    @Benchmark
+    public int checkFuelLevelMocked(MockedRepository state) {
+        return state.carService.checkFuelLevel(state.car.getId());
+    }
+
+    @Benchmark
+    public Car startCarDatabase(EmbeddedDatabase state) {
+        return startCar(state.carService, state.car.getId());
+    }
+
+    @Benchmark
+    public Car refuelCarDatabase(EmbeddedDatabase state) {
+        return state.carService.refuelCar(state.car.getId(), 0);
+    }
+
+    @Benchmark
+    public int checkFuelLevelDatabase(EmbeddedDatabase state) {
+        return state.carService.checkFuelLevel(state.car.getId());
+    }
+
+    // One in ten starts fails by design, those runs are part of the measured cost. The failures are seeded,
+    // so every run fails the same starts
+    private static Car startCar(CarService carService, Long carId) {
+        try {
+            return carService.startCar(carId);
+        } catch (EngineFailureException e) {
+            return null;
+        }
+    }
+}
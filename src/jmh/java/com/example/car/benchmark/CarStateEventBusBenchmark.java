@@ -0,0 +1,64 @@
+package com.example.car.benchmark;
+
+import com.example.car.dto.CarResponse;
+import com.example.car.service.CarStateEventBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures publishing a change of one car while many subscribers of other cars wait idle.
+ * The idle subscribers should not make publishing slower, as only the subscribers of the changed car are visited.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CarStateEventBusBenchmark {
+
+    @Param({"0", "10000", "50000"})
+    int idleSubscribers;
+
+    private CarStateEventBus bus;
+    private CarResponse state;
+
+    @Setup
+    public void setUp() {
+        bus = new CarStateEventBus(new SimpleMeterRegistry(), 1, 256, true, CarStateEventBus.OverflowPolicy.DROP_OLDEST);
+        for (long carId = 1; carId <= idleSubscribers; carId++) {
+            bus.subscribe(carId, changed -> {
+            });
+        }
+        long subscribedCarId = idleSubscribers + 1L;
+        bus.subscribe(subscribedCarId, changed -> {
+        });
+        state = new CarResponse(subscribedCarId, true, 45, null);
+    }
+
+    @TearDown
+    public void tearDown() throws ReflectiveOperationException {
+        Method stopSenders = CarStateEventBus.class.getDeclaredMethod("stopSenders");
+        stopSenders.setAccessible(true);
+        stopSenders.invoke(bus);
+    }
+
+    @Benchmark
+    public void publish() {
+        bus.publish(state);
+    }
+}
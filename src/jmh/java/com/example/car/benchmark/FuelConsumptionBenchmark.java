@@ -0,0 +1,81 @@
+package com.example.car.benchmark;
+
+import com.example.car.CarApplication;
+import com.example.car.service.CarService;
+import com.example.car.service.FuelConsumptionSimulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one fuel consumption tick over a fleet where every engine is running, on an embedded H2 database,
+ * for different fleet sizes and id ranges per transaction. Cars per second are the fleet size divided by the tick time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class FuelConsumptionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class RunningFleet {
+
+        @Param({"10000", "100000"})
+        public int cars;
+
+        @Param({"1000", "10000"})
+        public int carsPerTransaction;
+
+        ConfigurableApplicationContext context;
+        FuelConsumptionSimulator simulator;
+
+        @Setup
+        public void setUp() {
+            context = new SpringApplicationBuilder(CarApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(
+                            "spring.datasource.url=jdbc:h2:mem:car_fuel_consumption;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                            "spring.datasource.username=sa",
+                            "spring.datasource.password=",
+                            "car.simulation.enabled=true",
+                            "car.simulation.tick-interval-ms=3600000",
+                            "car.simulation.cars-per-transaction=" + carsPerTransaction,
+                            "logging.level.root=WARN",
+                            "logging.level.com.example.car=OFF")
+                    .run();
+            simulator = context.getBean(FuelConsumptionSimulator.class);
+            context.getBean(CarService.class).createCars(cars);
+
+            // enough fuel that no engine runs dry during the measurement
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            jdbcTemplate.update("update engine set running = true");
+            jdbcTemplate.update("update fuel_tank set fuel_level = 1000000000");
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public int tick(RunningFleet state) {
+        return state.simulator.tick();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.car.benchmark;
+
+import com.example.car.dto.FleetTelemetry;
+import com.example.car.service.FuelTelemetry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures recording a start and a refuel outside of a transaction, and querying the telemetry for windows of one minute
+ * and one hour with fleets of different sizes. Recording should stay flat, the query should grow with the window only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FuelTelemetryBenchmark {
+
+    @Param({"60", "3600"})
+    int windowSeconds;
+
+    @Param({"1000", "1000000"})
+    int fleetSize;
+
+    private FuelTelemetry telemetry;
+
+    @Setup
+    public void setUp() {
+        telemetry = new FuelTelemetry(null, 3600, 10, 10, 0);
+        telemetry.carsCreated(fleetSize, 50);
+        for (int car = 0; car < fleetSize; car++) {
+            telemetry.started(50, 45);
+        }
+    }
+
+    @Benchmark
+    public void recordStart() {
+        telemetry.started(50, 45);
+    }
+
+    @Benchmark
+    public void recordRefuel() {
+        telemetry.refueled(10, 45, 55);
+    }
+
+    @Benchmark
+    public FleetTelemetry snapshot() {
+        return telemetry.snapshot(windowSeconds);
+    }
+}
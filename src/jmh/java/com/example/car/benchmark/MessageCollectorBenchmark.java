@@ -0,0 +1,121 @@
+package com.example.car.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.example.car.messages.MessageCollector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former eager {@link MessageFormat} messages with the SLF4J templates of {@link MessageCollector}.
+ * The {@code disabled*} benchmarks log at a level that is switched off, the {@code formatted*} benchmarks
+ * measure the cost of building the final text as it happens when the level is enabled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCollectorBenchmark {
+
+    private Logger disabledLogger;
+    private Long carId;
+    private Long fuelTankId;
+    private int fuelLevel;
+    private int amount;
+
+    @Setup
+    public void setUp() {
+        disabledLogger = LoggerFactory.getLogger("benchmark.disabled");
+        ((ch.qos.logback.classic.Logger) disabledLogger).setLevel(Level.OFF);
+        carId = 1042L;
+        fuelTankId = 2042L;
+        fuelLevel = 1045;
+        amount = 20;
+    }
+
+    @Benchmark
+    public void disabledCarStartedLegacy() {
+        disabledLogger.info(LegacyMessages.carStarted(carId, fuelLevel));
+    }
+
+    @Benchmark
+    public void disabledCarStartedTemplate() {
+        if (disabledLogger.isInfoEnabled()) {
+            disabledLogger.info(MessageCollector.CAR_STARTED_LOG, carId, fuelLevel);
+        }
+    }
+
+    @Benchmark
+    public void disabledCarRefueledLegacy() {
+        disabledLogger.info(LegacyMessages.carRefueledDetailed(carId, fuelTankId, amount, fuelLevel));
+    }
+
+    @Benchmark
+    public void disabledCarRefueledTemplate() {
+        if (disabledLogger.isInfoEnabled()) {
+            disabledLogger.info(MessageCollector.CAR_REFUELED_LOG, fuelTankId, carId, amount, fuelLevel);
+        }
+    }
+
+    @Benchmark
+    public String formattedCarStartedLegacy() {
+        return LegacyMessages.carStarted(carId, fuelLevel);
+    }
+
+    @Benchmark
+    public String formattedCarStartedTemplate() {
+        return MessageFormatter.format(MessageCollector.CAR_STARTED_LOG, carId, fuelLevel).getMessage();
+    }
+
+    @Benchmark
+    public String formattedCarRefueledLegacy() {
+        return LegacyMessages.carRefueledDetailed(carId, fuelTankId, amount, fuelLevel);
+    }
+
+    @Benchmark
+    public String formattedCarRefueledTemplate() {
+        return MessageFormatter.arrayFormat(MessageCollector.CAR_REFUELED_LOG,
+                new Object[]{fuelTankId, carId, amount, fuelLevel}).getMessage();
+    }
+
+    @Benchmark
+    public String dashboardFuelLevelLegacy() {
+        return LegacyMessages.carFuelLevel(carId, fuelLevel);
+    }
+
+    @Benchmark
+    public String dashboardFuelLevelConcatenated() {
+        return MessageCollector.carFuelLevel(carId, fuelLevel);
+    }
+
+    // The message builders as they were before the switch to SLF4J templates
+    private static final class LegacyMessages {
+
+        static String carStarted(Long carId, int fuelLevel) {
+            return MessageFormat.format("Car with the id {0} started successfully. Remaining fuel: {1} liters.", carId, fuelLevel);
+        }
+
+        static String carRefueledDetailed(Long carId, Long fuelTankId, int amount, int currentFuel) {
+            return MessageFormat.format("Fueltank with id {0} from car with {1} ID has been refueled with {2} liters of fuel. Current fuel level is {3} liters", fuelTankId, carId, amount, currentFuel);
+        }
+
+        static String carFuelLevel(Long carId, int fuelLevel) {
+            return MessageFormat.format("The car {0} has {1} liters of fuel remaining.", carId, fuelLevel);
+        }
+    }
+}
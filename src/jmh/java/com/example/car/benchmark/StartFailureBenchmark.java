@@ -0,0 +1,178 @@
+package com.example.car.benchmark;
+
+import com.example.car.CarApplication;
+import com.example.car.dto.StartResult;
+import com.example.car.entity.Car;
+import com.example.car.entity.Dashboard;
+import com.example.car.entity.Engine;
+import com.example.car.entity.FuelTank;
+import com.example.car.repository.CarRepository;
+import com.example.car.repository.EngineRepository;
+import com.example.car.repository.FuelTankRepository;
+import com.example.car.service.CarMetrics;
+import com.example.car.service.CarService;
+import com.example.car.service.CarStateEventBus;
+import com.example.car.service.CarStatusCache;
+import com.example.car.service.DashboardEventChannel;
+import com.example.car.service.FixedProbabilityFailureModel;
+import com.example.car.service.FuelTelemetry;
+import com.example.car.service.OptimisticLockRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures starts that fail by design, an engine that always refuses and a car without fuel, once against stubbed
+ * repositories and once against the full application on an embedded H2 database.
+ * The {@code throwing} benchmarks call {@link CarService#startCar}, which reports the failures as exceptions,
+ * the {@code result} benchmarks call {@link CarService#tryStartCar}, which returns them as a {@link StartResult}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StartFailureBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class MockedRepository {
+
+        CarService engineFailing;
+        CarService fuelEmpty;
+
+        @Setup
+        public void setUp() {
+            ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.example.car")).setLevel(ch.qos.logback.classic.Level.OFF);
+            engineFailing = carService(1.0, 1);
+            fuelEmpty = carService(0.0, 0);
+        }
+
+        private static CarService carService(double failureProbability, int consumedRows) {
+            Car car = new Car();
+            car.setId(1L);
+            car.setEngine(new Engine());
+            car.setFuelTank(new FuelTank());
+            car.setDashboard(new Dashboard());
+
+            CarRepository carRepository = stub(CarRepository.class, "findWithPartsById", Optional.of(car));
+            FuelTankRepository fuelTankRepository = stub(FuelTankRepository.class, "consumeFuel", consumedRows);
+            EngineRepository engineRepository = stub(EngineRepository.class, "countStart", 1);
+            OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(null, new SimpleMeterRegistry(), 1, 0, 0) {
+                @Override
+                public <T> T execute(String operationName, Supplier<T> operation) {
+                    return operation.get();
+                }
+            };
+
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            return new CarService(
+                    carRepository,
+                    fuelTankRepository,
+                    engineRepository,
+                    new DashboardEventChannel(meterRegistry, 10_000),
+                    new CarStatusCache(meterRegistry, false, 0, 0),
+                    optimisticLockRetry,
+                    new CarMetrics(meterRegistry, carRepository),
+                    new FixedProbabilityFailureModel(failureProbability, () -> 0.5),
+                    new CarStateEventBus(meterRegistry, 1, 256, true, CarStateEventBus.OverflowPolicy.DROP_OLDEST),
+                    new FuelTelemetry(null, 3600, 10, 10, 0),
+                    Optional.empty(),
+                    Optional.empty());
+        }
+
+        // Plain proxy instead of a Mockito mock, which records a stack trace on every call and drowns the difference
+        @SuppressWarnings("unchecked")
+        private static <T> T stub(Class<T> type, String methodName, Object result) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> method.getName().equals(methodName) ? result : null);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EmbeddedDatabase {
+
+        ConfigurableApplicationContext context;
+        CarService carService;
+        Long carId;
+
+        @Setup
+        public void setUp() {
+            context = new SpringApplicationBuilder(CarApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(
+                            "spring.datasource.url=jdbc:h2:mem:car_start_failure;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                            "spring.datasource.username=sa",
+                            "spring.datasource.password=",
+                            "car.engine-failure.probability=0",
+                            "logging.level.root=WARN",
+                            "logging.level.com.example.car=OFF")
+                    .run();
+            carService = context.getBean(CarService.class);
+            Car car = carService.createCar();
+            carId = car.getId();
+            context.getBean(JdbcTemplate.class).update("update fuel_tank set fuel_level = 0 where id = ?", car.getFuelTank().getId());
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Object engineFailureThrowingMocked(MockedRepository state) {
+        return startThrowing(state.engineFailing, 1L);
+    }
+
+    @Benchmark
+    public Object fuelEmptyThrowingMocked(MockedRepository state) {
+        return startThrowing(state.fuelEmpty, 1L);
+    }
+
+    @Benchmark
+    public Object fuelEmptyThrowingDatabase(EmbeddedDatabase state) {
+        return startThrowing(state.carService, state.carId);
+    }
+
+    @Benchmark
+    public StartResult engineFailureResultMocked(MockedRepository state) {
+        return state.engineFailing.tryStartCar(1L);
+    }
+
+    @Benchmark
+    public StartResult fuelEmptyResultMocked(MockedRepository state) {
+        return state.fuelEmpty.tryStartCar(1L);
+    }
+
+    @Benchmark
+    public StartResult fuelEmptyResultDatabase(EmbeddedDatabase state) {
+        return state.carService.tryStartCar(state.carId);
+    }
+
+    private static Object startThrowing(CarService carService, Long carId) {
+        try {
+            return carService.startCar(carId);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.car.loadtest;
+
+import com.example.car.CarApplication;
+import com.example.car.service.CarService;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP load test comparing the synchronous controller with the asynchronous one ({@code car.async.enabled}),
+ * and the default configuration with the production profile ({@code prod}).
+ * For each profile and mode the application is started on a random port with an embedded H2 database, then the given number
+ * of concurrent clients send a mix of status reads and start/stop/refuel calls (20% by default) for a fixed time.
+ * Throughput and latency percentiles are printed per profile and mode. The production profile keeps its pool,
+ * Open-Session-In-View and Hibernate settings, only its PostgreSQL url is replaced by the H2 one.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec@load-test}, options are passed as
+ * {@code -Dloadtest.args="clients=1000 duration=30 warmup=5 cars=1000 writes=20 modes=sync,async profiles=default,prod"}.
+ */
+public class CarLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        int carCount = Integer.parseInt(options.getOrDefault("cars", "1000"));
+        int writePercent = Integer.parseInt(options.getOrDefault("writes", "20"));
+        String[] modes = options.getOrDefault("modes", "sync,async").split(",");
+        String[] profiles = options.getOrDefault("profiles", "default").split(",");
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-8s %-6s %8s %10s %12s %10s %10s %10s %10s",
+                "profile", "mode", "clients", "requests", "req/s", "non-2xx", "p50 ms", "p99 ms", "max ms"));
+        for (String profile : profiles) {
+            for (String mode : modes) {
+                report.add(run(profile, mode, clients, durationSeconds, warmupSeconds, carCount, writePercent));
+            }
+        }
+        report.forEach(System.out::println);
+    }
+
+    private static String run(String profile, String mode, int clients, int durationSeconds, int warmupSeconds, int carCount,
+                              int writePercent) throws Exception {
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(CarApplication.class)
+                .profiles(profile)
+                .properties(
+                        "server.port=0",
+                        "car.async.enabled=" + "async".equals(mode),
+                        "car.engine-failure.seed=42",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.car=OFF")
+                // as arguments, so they also override the datasource of the profile
+                .run("--spring.datasource.url=jdbc:h2:mem:car_load_" + profile + "_" + mode + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=")) {
+            CarService carService = context.getBean(CarService.class);
+            long[] carIds = new long[carCount];
+            for (int i = 0; i < carCount; i++) {
+                carIds[i] = carService.createCar().getId();
+            }
+            String baseUrl = "http://localhost:" + context.getWebServer().getPort() + "/api/cars/";
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            drive(httpClient, baseUrl, carIds, writePercent, clients, warmupSeconds, new Histogram(TimeUnit.MINUTES.toMicros(1), 3), new AtomicLong());
+
+            Histogram latencies = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+            AtomicLong failures = new AtomicLong();
+            drive(httpClient, baseUrl, carIds, writePercent, clients, durationSeconds, latencies, failures);
+
+            return String.format("%-8s %-6s %8d %10d %12.0f %10d %10.2f %10.2f %10.2f",
+                    profile, mode, clients, latencies.getTotalCount(), latencies.getTotalCount() / (double) durationSeconds,
+                    failures.get(),
+                    latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getMaxValue() / 1000.0);
+        }
+    }
+
+    private static void drive(HttpClient httpClient, String baseUrl, long[] carIds, int writePercent, int clients, int seconds,
+                              Histogram latencies, AtomicLong failures) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Thread thread = new Thread(() -> {
+                Histogram local = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = nextRequest(baseUrl, carIds, writePercent);
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() / 100 != 2) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    local.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), local.getHighestTrackableValue()));
+                }
+                synchronized (latencies) {
+                    latencies.add(local);
+                }
+            }, "load-client-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    // Half of the reads are fuel level reads and half engine status reads, half of the writes start or stop and half refuel
+    private static HttpRequest nextRequest(String baseUrl, long[] carIds, int writePercent) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long carId = carIds[random.nextInt(carIds.length)];
+        boolean post = random.nextInt(100) < writePercent;
+        String path;
+        if (!post) {
+            path = carId + (random.nextBoolean() ? "/checkFuelLevel" : "/isEngineRunning");
+        } else if (random.nextBoolean()) {
+            path = carId + (random.nextBoolean() ? "/start" : "/stop");
+        } else {
+            path = carId + "/refuel?amount=5";
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        return post ? builder.POST(HttpRequest.BodyPublishers.noBody()).build() : builder.GET().build();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+}
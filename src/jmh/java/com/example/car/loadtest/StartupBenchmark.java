@@ -0,0 +1,172 @@
+package com.example.car.loadtest;
+
+import com.example.car.CarApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Startup benchmark, measures how long a new node takes until it answers its first request.
+ * Every run starts the application in a new JVM against the same H2 file database, migrated once before the runs,
+ * then sends {@code POST /api/cars/createCar} until it is answered. Two times are reported per run:
+ * until the port accepts connections (ready) and until the first request has been answered (first request).
+ * The median and minimum of the runs are printed per profile, Liquibase mode and CDS setting.
+ * <p>
+ * With the {@code cds} Maven profile built ({@code mvn -Pcds package}), the runs use the jars in {@code target/cds}, once
+ * without and once with its class data sharing archive. Without it they use the test classpath and CDS is left out.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec@startup}, options are passed as
+ * {@code -Dstartup.args="runs=5 profiles=default,fast-startup liquibase=migrate,verify,skip cds=off,on"}.
+ * Without {@code liquibase} each profile runs with its own mode.
+ */
+public class StartupBenchmark {
+
+    private static final Path CDS_DIRECTORY = Paths.get("target", "cds");
+    private static final Path CDS_ARCHIVE = CDS_DIRECTORY.resolve("car.jsa");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        String[] profiles = options.getOrDefault("profiles", "default,fast-startup").split(",");
+        String[] liquibaseModes = options.getOrDefault("liquibase", "").split(",");
+        boolean cdsBuilt = Files.exists(CDS_ARCHIVE);
+        String[] cdsSettings = options.getOrDefault("cds", cdsBuilt ? "off,on" : "off").split(",");
+        if (!cdsBuilt && Arrays.asList(cdsSettings).contains("on")) {
+            throw new IllegalArgumentException(CDS_ARCHIVE + " is missing, build it with mvn -Pcds package");
+        }
+        String classpath = cdsBuilt ? cdsClasspath() : System.getProperty("java.class.path");
+
+        Path databaseDirectory = Files.createDirectories(Paths.get("target", "startup-db"));
+        String databaseUrl = "jdbc:h2:file:" + databaseDirectory.toAbsolutePath().resolve("car") + ";MODE=PostgreSQL";
+        // migrates the database, so the runs of every mode start from the same schema
+        measure(classpath, false, "default", "migrate", databaseUrl);
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-14s %-10s %-4s %6s %12s %12s %18s %18s",
+                "profile", "liquibase", "cds", "runs", "ready p50", "ready min", "first request p50", "first request min"));
+        for (String profile : profiles) {
+            for (String liquibaseMode : liquibaseModes) {
+                for (String cds : cdsSettings) {
+                    long[] ready = new long[runs];
+                    long[] firstRequest = new long[runs];
+                    for (int i = 0; i < runs; i++) {
+                        long[] times = measure(classpath, "on".equals(cds), profile, liquibaseMode, databaseUrl);
+                        ready[i] = times[0];
+                        firstRequest[i] = times[1];
+                    }
+                    Arrays.sort(ready);
+                    Arrays.sort(firstRequest);
+                    report.add(String.format("%-14s %-10s %-4s %6d %9d ms %9d ms %15d ms %15d ms",
+                            profile, liquibaseMode.isEmpty() ? "(profile)" : liquibaseMode, cds, runs,
+                            ready[runs / 2], ready[0], firstRequest[runs / 2], firstRequest[0]));
+                }
+            }
+        }
+        report.forEach(System.out::println);
+    }
+
+    // Milliseconds from launching the JVM until the port accepted a connection and until the first request was answered
+    private static long[] measure(String classpath, boolean cds, String profile, String liquibaseMode, String databaseUrl)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (cds) {
+            command.add("-XX:SharedArchiveFile=" + CDS_ARCHIVE);
+        }
+        command.addAll(Arrays.asList("-cp", classpath, CarApplication.class.getName(),
+                "--spring.profiles.active=" + profile,
+                "--server.port=" + port,
+                "--spring.datasource.url=" + databaseUrl,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password="));
+        if (!liquibaseMode.isEmpty()) {
+            command.add("--car.liquibase.mode=" + liquibaseMode);
+        }
+        File log = Paths.get("target", "startup-" + profile + ".log").toFile();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        HttpRequest firstRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/cars/createCar"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofMinutes(1))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+        try {
+            long ready = awaitPort(process, port, log) - start;
+            HttpResponse<Void> response = httpClient.send(firstRequest, HttpResponse.BodyHandlers.discarding());
+            long answered = System.nanoTime() - start;
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("The first request was answered with " + response.statusCode() + ", see " + log);
+            }
+            return new long[]{TimeUnit.NANOSECONDS.toMillis(ready), TimeUnit.NANOSECONDS.toMillis(answered)};
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    // Returns the time the port first accepted a connection, Tomcat opens it once the context has been refreshed
+    private static long awaitPort(Process process, int port, File log) throws InterruptedException {
+        while (true) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The application exited with " + process.exitValue() + ", see " + log);
+            }
+            try (Socket socket = new Socket("localhost", port)) {
+                return System.nanoTime();
+            } catch (IOException e) {
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    private static String cdsClasspath() throws IOException {
+        try (Stream<Path> jars = Files.list(CDS_DIRECTORY)) {
+            String applicationJar = jars.filter(path -> path.toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No application jar in " + CDS_DIRECTORY))
+                    .toString();
+            // the same classpath the archive was dumped with, the JVM only maps the archive if it matches
+            return applicationJar + File.pathSeparator + CDS_DIRECTORY.resolve("lib") + File.separator + "*";
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+}
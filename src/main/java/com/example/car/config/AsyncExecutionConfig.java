@@ -0,0 +1,30 @@
+package com.example.car.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Bounded executor that runs the blocking service calls of the asynchronous controller.
+ * Its size should match the connection pool, more threads would only wait for a connection.
+ */
+@Configuration
+@ConditionalOnProperty(name = "car.async.enabled", havingValue = "true")
+public class AsyncExecutionConfig {
+
+    public static final String CAR_SERVICE_EXECUTOR = "carServiceExecutor";
+
+    @Bean(name = CAR_SERVICE_EXECUTOR)
+    public ThreadPoolTaskExecutor carServiceExecutor(@Value("${car.async.pool-size:10}") int poolSize,
+                                                     @Value("${car.async.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("car-service-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
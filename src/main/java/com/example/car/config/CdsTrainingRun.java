@@ -0,0 +1,68 @@
+package com.example.car.config;
+
+import com.example.car.messages.MessageCollector;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Training run of the class data sharing archive built by the {@code cds} Maven profile,
+ * enabled with {@code car.startup.training-run=true}. Once the application is ready it sends the requests a new node
+ * serves first, so the classes of the request path are loaded and archived as well, then it exits.
+ */
+@Component
+@ConditionalOnProperty(name = "car.startup.training-run", havingValue = "true")
+class CdsTrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CdsTrainingRun.class);
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        int exitCode = 0;
+        try {
+            train(context);
+        } catch (IOException | RuntimeException e) {
+            logger.error(MessageCollector.CDS_TRAINING_FAILED_LOG, e);
+            exitCode = 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exitCode = 1;
+        }
+        int closeCode = SpringApplication.exit(context);
+        System.exit(exitCode != 0 ? exitCode : closeCode);
+    }
+
+    private static void train(ConfigurableApplicationContext context) throws IOException, InterruptedException {
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/cars/";
+        HttpClient httpClient = HttpClient.newHttpClient();
+        String created = send(httpClient, HttpRequest.newBuilder(URI.create(baseUrl + "createCar"))
+                .POST(HttpRequest.BodyPublishers.noBody()));
+        long carId = context.getBean(ObjectMapper.class).readTree(created).get("carId").asLong();
+        send(httpClient, HttpRequest.newBuilder(URI.create(baseUrl + carId + "/checkFuelLevel")).GET());
+        send(httpClient, HttpRequest.newBuilder(URI.create(baseUrl + carId + "/isEngineRunning")).GET());
+        send(httpClient, HttpRequest.newBuilder(URI.create(baseUrl + carId + "/start")).POST(HttpRequest.BodyPublishers.noBody()));
+        send(httpClient, HttpRequest.newBuilder(URI.create(baseUrl + carId + "/refuel?amount=5")).POST(HttpRequest.BodyPublishers.noBody()));
+        send(httpClient, HttpRequest.newBuilder(URI.create(baseUrl + carId + "/stop")).POST(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    private static String send(HttpClient httpClient, HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(MessageCollector.cdsTrainingRequestFailed(response.request().uri(), response.statusCode()));
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.car.config;
+
+import com.example.car.messages.MessageCollector;
+import com.example.car.service.EngineFailureModel;
+import com.example.car.service.FixedProbabilityFailureModel;
+import com.example.car.service.SeededRandom;
+import com.example.car.service.WearBasedFailureModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Selects the {@link EngineFailureModel} of the deployment with {@code car.engine-failure.model}:
+ * {@code fixed} fails every start with {@code car.engine-failure.probability},
+ * {@code wear} starts from that probability and adds {@code car.engine-failure.wear-per-start} for every previous start
+ * of the engine, up to {@code car.engine-failure.max-probability}.
+ * Both draw from {@link ThreadLocalRandom}, unless {@code car.engine-failure.seed} is set for a reproducible sequence.
+ */
+@Configuration
+public class EngineFailureModelConfig {
+
+    @Bean
+    public EngineFailureModel engineFailureModel(@Value("${car.engine-failure.model:fixed}") String model,
+                                                 @Value("${car.engine-failure.probability:0.1}") double probability,
+                                                 @Value("${car.engine-failure.wear-per-start:0.001}") double wearPerStart,
+                                                 @Value("${car.engine-failure.max-probability:0.5}") double maxProbability,
+                                                 @Value("${car.engine-failure.seed:#{null}}") Long seed) {
+        DoubleSupplier random = seed != null
+                ? new SeededRandom(seed)
+                : () -> ThreadLocalRandom.current().nextDouble();
+        switch (model) {
+            case "fixed":
+                return new FixedProbabilityFailureModel(probability, random);
+            case "wear":
+                return new WearBasedFailureModel(probability, wearPerStart, maxProbability, random);
+            default:
+                throw new IllegalArgumentException(MessageCollector.unknownEngineFailureModel(model));
+        }
+    }
+}
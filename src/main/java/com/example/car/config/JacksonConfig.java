@@ -0,0 +1,43 @@
+package com.example.car.config;
+
+import com.example.car.dto.CarResponse;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Registers the field filter of {@link CarResponse} with the application's ObjectMapper,
+ * writing every property unless a request selects fields.
+ * <p>
+ * Also provides the CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) converters for
+ * callers that ask for a binary encoding. Spring MVC would otherwise add its own, built without the customizations
+ * of the application's ObjectMapper, so they could not write a {@link CarResponse} without its filter.
+ * JSON stays first and answers any other Accept header.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer carResponseFieldFilter() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .addFilter(CarResponse.FIELD_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    // The builder is a prototype, each converter gets its own copy with the customizations applied
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
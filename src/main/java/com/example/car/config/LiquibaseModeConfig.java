@@ -0,0 +1,108 @@
+package com.example.car.config;
+
+import com.example.car.messages.MessageCollector;
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.changelog.ChangeSet;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import liquibase.integration.spring.SpringResourceAccessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Lets a node skip the Liquibase migrations or only verify them, with {@code car.liquibase.mode}:
+ * <ul>
+ *     <li>{@code migrate} (default) applies the pending change sets on startup.</li>
+ *     <li>{@code verify} applies nothing and fails startup if a change set has not been applied yet, for replicas
+ *     and scaled-out nodes that must not race to migrate, but must not serve an outdated schema either.</li>
+ *     <li>{@code skip} neither applies nor reads the change log, for nodes started after a migration was verified.</li>
+ * </ul>
+ * Spring Boot 2.7 has no customizer for its {@link SpringLiquibase} bean, so the mode is applied by a post-processor.
+ */
+@Configuration
+@ConditionalOnClass(SpringLiquibase.class)
+public class LiquibaseModeConfig {
+
+    public enum Mode {
+        MIGRATE,
+        VERIFY,
+        SKIP
+    }
+
+    @Bean
+    public static BeanPostProcessor liquibaseModePostProcessor(Environment environment) {
+        String mode = environment.getProperty("car.liquibase.mode", "migrate");
+        return new LiquibaseModePostProcessor(Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT)));
+    }
+
+    private static final class LiquibaseModePostProcessor implements BeanPostProcessor {
+
+        private static final Logger logger = LoggerFactory.getLogger(LiquibaseModePostProcessor.class);
+
+        private final Mode mode;
+
+        LiquibaseModePostProcessor(Mode mode) {
+            this.mode = mode;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+            if (bean instanceof SpringLiquibase && mode != Mode.MIGRATE) {
+                ((SpringLiquibase) bean).setShouldRun(false);
+            }
+            return bean;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+            if (bean instanceof SpringLiquibase && mode == Mode.VERIFY) {
+                List<ChangeSet> pending = listPendingChangeSets((SpringLiquibase) bean, beanName);
+                if (!pending.isEmpty()) {
+                    throw new BeanCreationException(beanName, MessageCollector.liquibaseChangesPending(
+                            pending.stream().map(ChangeSet::toString).collect(Collectors.joining(", "))));
+                }
+                logger.info(MessageCollector.LIQUIBASE_VERIFIED_LOG, ((SpringLiquibase) bean).getChangeLog());
+            }
+            return bean;
+        }
+
+        // Uses the settings Spring Boot applied to the bean, the same change log and tables a migration would use
+        private static List<ChangeSet> listPendingChangeSets(SpringLiquibase springLiquibase, String beanName) {
+            try {
+                Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(
+                        new JdbcConnection(springLiquibase.getDataSource().getConnection()));
+                database.setDefaultSchemaName(springLiquibase.getDefaultSchema());
+                database.setLiquibaseSchemaName(springLiquibase.getLiquibaseSchema());
+                database.setDatabaseChangeLogTableName(springLiquibase.getDatabaseChangeLogTable());
+                database.setDatabaseChangeLogLockTableName(springLiquibase.getDatabaseChangeLogLockTable());
+                Liquibase liquibase = new Liquibase(springLiquibase.getChangeLog(),
+                        new SpringResourceAccessor(springLiquibase.getResourceLoader()), database);
+                try {
+                    return liquibase.listUnrunChangeSets(new Contexts(springLiquibase.getContexts()),
+                            new LabelExpression(springLiquibase.getLabels()));
+                } finally {
+                    liquibase.close();
+                }
+            } catch (SQLException | LiquibaseException e) {
+                throw new BeanCreationException(beanName, MessageCollector.LIQUIBASE_VERIFY_FAILED, e);
+            }
+        }
+    }
+}
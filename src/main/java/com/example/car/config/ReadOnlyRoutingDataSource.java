@@ -0,0 +1,40 @@
+package com.example.car.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Sends connections of read-only transactions to the replica and everything else to the primary.
+ * Reads that must not lag behind the writes of this node can ask for the primary with {@link #readFromPrimary}.
+ */
+public class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Boolean> primaryReads = new ThreadLocal<>();
+
+    /**
+     * Runs the reads on the primary, also inside a read-only transaction. This only decides the connection
+     * if the transaction has not fetched one yet, which the lazy connection proxy defers until the first statement.
+     * Without a replica everything is read from the primary anyway.
+     */
+    public static <T> T readFromPrimary(Supplier<T> reads) {
+        Boolean previous = primaryReads.get();
+        primaryReads.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            if (previous == null) {
+                primaryReads.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && primaryReads.get() == null ? REPLICA : PRIMARY;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.car.config;
+
+import com.example.car.controller.AsyncCarController;
+import com.example.car.controller.CarController;
+import com.example.car.service.FuelConsumptionSimulator;
+import com.example.car.service.IdempotencyStore;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the beans that stay eager when {@code spring.main.lazy-initialization} is on, as in the {@code fast-startup}
+ * profile. Lazily, nothing would ever ask for the background workers, so the fuel consumption simulation would not
+ * tick and expired idempotency keys would not be purged. The controllers are kept eager with the services and
+ * repositories they need, so the first request does not build them. Only the rest, like the actuator endpoints,
+ * is created on first use.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(FuelConsumptionSimulator.class, IdempotencyStore.class,
+                CarController.class, AsyncCarController.class);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.car.controller;
+
+import com.example.car.config.AsyncExecutionConfig;
+import com.example.car.dto.CarCommand;
+import com.example.car.dto.CarCommandResult;
+import com.example.car.dto.CarPage;
+import com.example.car.dto.FleetTelemetry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous variant of {@link CarController}, active when {@code car.async.enabled=true}.
+ * Each request hands its {@link CarRequests} call to the bounded car service executor and releases the Tomcat thread,
+ * so blocked JDBC calls no longer hold request threads. When the executor queue is full the request
+ * is rejected with 503 instead of waiting.
+ */
+@RestController
+@RequestMapping("/api/cars")
+@ConditionalOnProperty(name = "car.async.enabled", havingValue = "true")
+public class AsyncCarController {
+
+    private final CarRequests carRequests;
+    private final CarExportStream carExportStream;
+    private final CarEventStream carEventStream;
+    private final Executor executor;
+
+    public AsyncCarController(CarRequests carRequests,
+                              CarExportStream carExportStream,
+                              CarEventStream carEventStream,
+                              @Qualifier(AsyncExecutionConfig.CAR_SERVICE_EXECUTOR) Executor executor) {
+        this.carRequests = carRequests;
+        this.carExportStream = carExportStream;
+        this.carEventStream = carEventStream;
+        this.executor = executor;
+    }
+
+    @GetMapping
+    public CompletableFuture<CarPage> listCars(@RequestParam(defaultValue = "0") Long afterId,
+                                               @RequestParam(defaultValue = "100") int limit,
+                                               @RequestParam(required = false) Boolean running,
+                                               @RequestParam(required = false) Integer fuelBelow) {
+        return async(() -> carRequests.listCars(afterId, limit, running, fuelBelow));
+    }
+
+    // Already asynchronous, the body is written on the MVC task executor
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, CarExportStream.APPLICATION_CBOR_SEQ_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportCars(@RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        return carExportStream.response(accept);
+    }
+
+    @PostMapping("/createCar")
+    public CompletableFuture<MappingJacksonValue> createCar(@RequestParam(required = false) String fields,
+                                                           @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return async(() -> carRequests.createCar(fields, idempotencyKey));
+    }
+
+    @PostMapping("/bulk")
+    public CompletableFuture<List<Long>> createCars(@RequestParam int count,
+                                                    @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return async(() -> carRequests.createCars(count, idempotencyKey));
+    }
+
+    @PostMapping("/{carId}/start")
+    public CompletableFuture<ResponseEntity<MappingJacksonValue>> startCar(@PathVariable Long carId,
+                                                                          @RequestParam(required = false) String fields,
+                                                                          @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return async(() -> carRequests.startCar(carId, fields, idempotencyKey));
+    }
+
+    @PostMapping("/{carId}/stop")
+    public CompletableFuture<MappingJacksonValue> stopCar(@PathVariable Long carId,
+                                                         @RequestParam(required = false) String fields,
+                                                         @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return async(() -> carRequests.stopCar(carId, fields, idempotencyKey));
+    }
+
+    @PostMapping("/{carId}/refuel")
+    public CompletableFuture<MappingJacksonValue> refuelCar(@PathVariable Long carId, @RequestParam int amount,
+                                                           @RequestParam(required = false) String fields,
+                                                           @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return async(() -> carRequests.refuelCar(carId, amount, fields, idempotencyKey));
+    }
+
+    @PostMapping("/batch")
+    public CompletableFuture<List<CarCommandResult>> executeBatch(@RequestBody List<CarCommand> commands,
+                                                                  @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return async(() -> carRequests.executeBatch(commands, idempotencyKey));
+    }
+
+    @GetMapping("/{carId}/checkFuelLevel")
+    public CompletableFuture<Integer> getFuelLevel(@PathVariable Long carId) {
+        return async(() -> carRequests.getFuelLevel(carId));
+    }
+
+    @GetMapping("/{carId}/isEngineRunning")
+    public CompletableFuture<Boolean> getIsEngineRunning(@PathVariable Long carId) {
+        return async(() -> carRequests.getIsEngineRunning(carId));
+    }
+
+    // Only the lookup of the car runs on the request thread, the stream itself holds no thread while it waits
+    @GetMapping(value = "/{carId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> carEvents(@PathVariable Long carId) {
+        return carEventStream.car(carId);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter fleetEvents() {
+        return carEventStream.fleet();
+    }
+
+    // Answered from memory in microseconds, not worth a hop to the executor
+    @GetMapping("/telemetry")
+    public FleetTelemetry fleetTelemetry(@RequestParam(defaultValue = "60") int windowSeconds) {
+        return carRequests.fleetTelemetry(windowSeconds);
+    }
+
+    // The executor's queue is full, the other failures are mapped by CarExceptionHandlers
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> handleRejectedExecution() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> serviceCall) {
+        return CompletableFuture.supplyAsync(serviceCall, executor);
+    }
+}
@@ -1,44 +1,103 @@
 package com.example.car.controller;
 
-import com.example.car.entity.Car;
-import com.example.car.service.CarService;
+import com.example.car.dto.CarCommand;
+import com.example.car.dto.CarCommandResult;
+import com.example.car.dto.CarPage;
+import com.example.car.dto.FleetTelemetry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/cars")
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "car.async.enabled", havingValue = "false", matchIfMissing = true)
 public class CarController {
 
-    private final CarService carService;
+    private final CarRequests carRequests;
+    private final CarExportStream carExportStream;
+    private final CarEventStream carEventStream;
+
+    @GetMapping
+    public CarPage listCars(@RequestParam(defaultValue = "0") Long afterId,
+                            @RequestParam(defaultValue = "100") int limit,
+                            @RequestParam(required = false) Boolean running,
+                            @RequestParam(required = false) Integer fuelBelow) {
+        return carRequests.listCars(afterId, limit, running, fuelBelow);
+    }
+
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, CarExportStream.APPLICATION_CBOR_SEQ_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportCars(@RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        return carExportStream.response(accept);
+    }
 
     @PostMapping("/createCar")
-    public Car createCar() {
-        return carService.createCar();
+    public MappingJacksonValue createCar(@RequestParam(required = false) String fields,
+                                         @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return carRequests.createCar(fields, idempotencyKey);
+    }
+
+    @PostMapping("/bulk")
+    public List<Long> createCars(@RequestParam int count,
+                                 @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return carRequests.createCars(count, idempotencyKey);
     }
 
     @PostMapping("/{carId}/start")
-    public Car startCar(@PathVariable Long carId) {
-        return carService.startCar(carId);
+    public ResponseEntity<MappingJacksonValue> startCar(@PathVariable Long carId, @RequestParam(required = false) String fields,
+                                                        @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return carRequests.startCar(carId, fields, idempotencyKey);
     }
 
     @PostMapping("/{carId}/stop")
-    public Car stopCar(@PathVariable Long carId) {
-        return carService.stopCar(carId);
+    public MappingJacksonValue stopCar(@PathVariable Long carId, @RequestParam(required = false) String fields,
+                                       @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return carRequests.stopCar(carId, fields, idempotencyKey);
     }
 
     @PostMapping("/{carId}/refuel")
-    public Car refuelCar(@PathVariable Long carId, @RequestParam int amount) {
-        return carService.refuelCar(carId, amount);
+    public MappingJacksonValue refuelCar(@PathVariable Long carId, @RequestParam int amount,
+                                         @RequestParam(required = false) String fields,
+                                         @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return carRequests.refuelCar(carId, amount, fields, idempotencyKey);
+    }
+
+    @PostMapping("/batch")
+    public List<CarCommandResult> executeBatch(@RequestBody List<CarCommand> commands,
+                                               @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        return carRequests.executeBatch(commands, idempotencyKey);
     }
 
     @GetMapping("/{carId}/checkFuelLevel")
     public int getFuelLevel(@PathVariable Long carId) {
-        return carService.checkFuelLevel(carId);
+        return carRequests.getFuelLevel(carId);
     }
 
     @GetMapping("/{carId}/isEngineRunning")
     public boolean getIsEngineRunning(@PathVariable Long carId) {
-        return carService.checkIsEngineRunning(carId);
+        return carRequests.getIsEngineRunning(carId);
+    }
+
+    @GetMapping(value = "/{carId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> carEvents(@PathVariable Long carId) {
+        return carEventStream.car(carId);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter fleetEvents() {
+        return carEventStream.fleet();
+    }
+
+    @GetMapping("/telemetry")
+    public FleetTelemetry fleetTelemetry(@RequestParam(defaultValue = "60") int windowSeconds) {
+        return carRequests.fleetTelemetry(windowSeconds);
     }
 }
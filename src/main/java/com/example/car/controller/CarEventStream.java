@@ -0,0 +1,104 @@
+package com.example.car.controller;
+
+import com.example.car.dto.CarResponse;
+import com.example.car.service.CarService;
+import com.example.car.service.CarStateEventBus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams car state changes as Server-Sent Events, each event is a {@code car-state} with a {@link CarResponse}.
+ * A stream of a single car starts with the current state of the car. Waiting streams hold no request thread,
+ * they are subscriptions of the {@link CarStateEventBus} written to by its sender threads.
+ */
+@Component
+class CarEventStream {
+
+    static final String EVENT_NAME = "car-state";
+
+    private final CarService carService;
+    private final CarStateEventBus carStateEventBus;
+    private final ObjectWriter writer;
+    private final long timeoutMillis;
+    // A change fanned out to many streams is usually sent several times in a row, it is serialized once for all of them
+    private final AtomicReference<SerializedState> lastSerialized = new AtomicReference<>();
+
+    CarEventStream(CarService carService,
+                   CarStateEventBus carStateEventBus,
+                   ObjectMapper objectMapper,
+                   @Value("${car.events.timeout-ms:1800000}") long timeoutMillis) {
+        this.carService = carService;
+        this.carStateEventBus = carStateEventBus;
+        this.writer = objectMapper.writerFor(CarResponse.class);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    ResponseEntity<SseEmitter> car(Long carId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        // Subscribed before reading, so a change committed in between is not missed
+        CarStateEventBus.Subscription subscription = open(carId, emitter);
+        Optional<CarResponse> state = carService.findCarState(carId);
+        if (state.isEmpty()) {
+            subscription.cancel();
+            return ResponseEntity.notFound().build();
+        }
+        subscription.offerInitial(state.get());
+        return ResponseEntity.ok(emitter);
+    }
+
+    SseEmitter fleet() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        open(null, emitter);
+        return emitter;
+    }
+
+    private CarStateEventBus.Subscription open(Long carId, SseEmitter emitter) {
+        CarStateEventBus.Subscription subscription = carStateEventBus.subscribe(carId, state -> send(emitter, state));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return subscription;
+    }
+
+    private void send(SseEmitter emitter, CarResponse state) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(EVENT_NAME)
+                    .data(serialize(state), MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String serialize(CarResponse state) throws JsonProcessingException {
+        SerializedState last = lastSerialized.get();
+        if (last != null && last.state == state) {
+            return last.json;
+        }
+        String json = writer.writeValueAsString(state);
+        lastSerialized.set(new SerializedState(state, json));
+        return json;
+    }
+
+    private static final class SerializedState {
+
+        private final CarResponse state;
+        private final String json;
+
+        SerializedState(CarResponse state, String json) {
+            this.state = state;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.car.controller;
+
+import com.example.car.dto.ErrorResponse;
+import com.example.car.dto.StartResult;
+import com.example.car.exceptions.CarBusyException;
+import com.example.car.exceptions.CarNotFoundException;
+import com.example.car.messages.MessageCollector;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps the exceptions of the car endpoints to their responses, the same for the blocking and the asynchronous controller.
+ */
+@RestControllerAdvice(assignableTypes = {CarController.class, AsyncCarController.class})
+class CarExceptionHandlers {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    // Same body as a start of an unknown car
+    @ExceptionHandler(CarNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleCarNotFound(CarNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse(StartResult.Reason.NOT_FOUND.name(), e.getMessage()));
+    }
+
+    // Concurrent changes of the car kept the operation from committing within its attempts, the client may retry
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConcurrentChange(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(MessageCollector.CONCURRENT_CHANGE);
+    }
+
+    // The mailbox of the car's shard is full, the client should back off and retry
+    @ExceptionHandler(CarBusyException.class)
+    public ResponseEntity<String> handleCarBusy(CarBusyException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.car.controller;
+
+import com.example.car.dto.CarSummary;
+import com.example.car.service.CarService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Writes the whole fleet, one {@link CarSummary} after the other, as newline-delimited JSON or as a CBOR sequence
+ * (RFC 8742), where every item is a complete CBOR value and needs no delimiter.
+ * Each car is written as soon as it is read from the database cursor, so neither the service
+ * nor the response holds more than a buffer of cars at a time.
+ */
+@Component
+class CarExportStream {
+
+    static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+    private static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+
+    private final CarService carService;
+    private final ObjectWriter jsonWriter;
+    private final ObjectWriter cborWriter;
+
+    CarExportStream(CarService carService, ObjectMapper objectMapper, MappingJackson2CborHttpMessageConverter cborConverter) {
+        this.carService = carService;
+        this.jsonWriter = objectMapper.writerFor(CarSummary.class);
+        this.cborWriter = cborConverter.getObjectMapper().writerFor(CarSummary.class);
+    }
+
+    /**
+     * Answers with a CBOR sequence if the Accept header prefers it, otherwise with newline-delimited JSON,
+     * also for wildcards and requests without the header.
+     */
+    ResponseEntity<StreamingResponseBody> response(String accept) {
+        if (accept != null) {
+            List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+            MediaType.sortBySpecificityAndQuality(accepted);
+            for (MediaType mediaType : accepted) {
+                if (mediaType.equalsTypeAndSubtype(APPLICATION_CBOR_SEQ)) {
+                    return response(cborWriter, false, APPLICATION_CBOR_SEQ);
+                }
+                if (mediaType.includes(MediaType.APPLICATION_NDJSON)) {
+                    break;
+                }
+            }
+        }
+        return response(jsonWriter, true, MediaType.APPLICATION_NDJSON);
+    }
+
+    private ResponseEntity<StreamingResponseBody> response(ObjectWriter writer, boolean newlineDelimited, MediaType contentType) {
+        StreamingResponseBody body = output -> {
+            BufferedOutputStream buffer = new BufferedOutputStream(output);
+            carService.exportCars(car -> write(buffer, writer, newlineDelimited, car));
+            buffer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .body(body);
+    }
+
+    private static void write(BufferedOutputStream buffer, ObjectWriter writer, boolean newlineDelimited, CarSummary car) {
+        try {
+            buffer.write(writer.writeValueAsBytes(car));
+            if (newlineDelimited) {
+                buffer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
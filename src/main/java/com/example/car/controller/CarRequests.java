@@ -0,0 +1,97 @@
+package com.example.car.controller;
+
+import com.example.car.dto.CarCommand;
+import com.example.car.dto.CarCommandResult;
+import com.example.car.dto.CarPage;
+import com.example.car.dto.CarResponse;
+import com.example.car.dto.FleetTelemetry;
+import com.example.car.service.CarService;
+import com.example.car.service.IdempotencyStore;
+import com.example.car.messages.MessageCollector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Handles the requests of {@link CarController} and {@link AsyncCarController}: calls the service behind the
+ * idempotency key of the request and shapes the response. The controllers only map the endpoints to these methods,
+ * the blocking one on the request thread, the asynchronous one on the car service executor.
+ * A batch is checked before it is fingerprinted: more than {@code car.batch.max-size} commands, or a command without
+ * a car id or a type, is rejected with 400 Bad Request.
+ */
+@Component
+@RequiredArgsConstructor
+class CarRequests {
+
+    private final CarService carService;
+    private final IdempotencyStore idempotencyStore;
+
+    @Value("${car.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    CarPage listCars(Long afterId, int limit, Boolean running, Integer fuelBelow) {
+        return carService.listCars(afterId, limit, running, fuelBelow);
+    }
+
+    MappingJacksonValue createCar(String fields, String idempotencyKey) {
+        CarResponse response = idempotencyStore.execute(idempotencyKey, IdempotentRequests.createCar(), IdempotentRequests.CAR_RESPONSE,
+                () -> CarResponse.from(carService.createCar()));
+        return FieldSelection.select(response, fields);
+    }
+
+    List<Long> createCars(int count, String idempotencyKey) {
+        return idempotencyStore.execute(idempotencyKey, IdempotentRequests.createCars(count), IdempotentRequests.CAR_IDS,
+                () -> carService.createCars(count));
+    }
+
+    ResponseEntity<MappingJacksonValue> startCar(Long carId, String fields, String idempotencyKey) {
+        return StartResponses.of(idempotencyStore.execute(idempotencyKey, IdempotentRequests.start(carId), IdempotentRequests.START_RESULT,
+                () -> carService.tryStartCar(carId)), fields);
+    }
+
+    MappingJacksonValue stopCar(Long carId, String fields, String idempotencyKey) {
+        CarResponse response = idempotencyStore.execute(idempotencyKey, IdempotentRequests.stop(carId), IdempotentRequests.CAR_RESPONSE,
+                () -> CarResponse.from(carService.stopCar(carId)));
+        return FieldSelection.select(response, fields);
+    }
+
+    MappingJacksonValue refuelCar(Long carId, int amount, String fields, String idempotencyKey) {
+        CarResponse response = idempotencyStore.execute(idempotencyKey, IdempotentRequests.refuel(carId, amount), IdempotentRequests.CAR_RESPONSE,
+                () -> CarResponse.from(carService.refuelCar(carId, amount)));
+        return FieldSelection.select(response, fields);
+    }
+
+    List<CarCommandResult> executeBatch(List<CarCommand> commands, String idempotencyKey) {
+        validateBatch(commands);
+        return idempotencyStore.execute(idempotencyKey, IdempotentRequests.batch(commands), IdempotentRequests.COMMAND_RESULTS,
+                () -> carService.executeBatch(commands));
+    }
+
+    int getFuelLevel(Long carId) {
+        return carService.checkFuelLevel(carId);
+    }
+
+    boolean getIsEngineRunning(Long carId) {
+        return carService.checkIsEngineRunning(carId);
+    }
+
+    FleetTelemetry fleetTelemetry(int windowSeconds) {
+        return carService.getFleetTelemetry(windowSeconds);
+    }
+
+    private void validateBatch(List<CarCommand> commands) {
+        if (commands == null || commands.size() > maxBatchSize) {
+            throw new IllegalArgumentException(MessageCollector.invalidBatchSize(commands == null ? 0 : commands.size(), maxBatchSize));
+        }
+        for (int i = 0; i < commands.size(); i++) {
+            CarCommand command = commands.get(i);
+            if (command == null || command.getCarId() == null || command.getType() == null) {
+                throw new IllegalArgumentException(MessageCollector.invalidBatchCommand(i));
+            }
+        }
+    }
+}
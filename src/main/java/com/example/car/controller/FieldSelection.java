@@ -0,0 +1,28 @@
+package com.example.car.controller;
+
+import com.example.car.dto.CarResponse;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.StringUtils;
+
+/**
+ * Applies the {@code fields} request parameter, a comma separated list of property names, to a response.
+ * Only the listed properties are serialized and unknown names are ignored.
+ * Without the parameter the default filter of the application's ObjectMapper writes every property.
+ */
+final class FieldSelection {
+
+    private FieldSelection() {
+    }
+
+    static MappingJacksonValue select(CarResponse response, String fields) {
+        MappingJacksonValue value = new MappingJacksonValue(response);
+        if (StringUtils.hasText(fields)) {
+            SimpleBeanPropertyFilter filter = SimpleBeanPropertyFilter.filterOutAllExcept(
+                    StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(fields)));
+            value.setFilters(new SimpleFilterProvider().addFilter(CarResponse.FIELD_FILTER, filter));
+        }
+        return value;
+    }
+}
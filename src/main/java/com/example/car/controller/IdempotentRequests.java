@@ -0,0 +1,76 @@
+package com.example.car.controller;
+
+import com.example.car.dto.CarCommand;
+import com.example.car.dto.CarCommandResult;
+import com.example.car.dto.CarResponse;
+import com.example.car.dto.StartResult;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * The {@code Idempotency-Key} header of the POST endpoints, the response types recorded for it and the fingerprints
+ * that tie a key to the request it was first sent with. A start records its result, so a failed start is replayed
+ * as the same failure. The fields parameter only shapes the output,
+ * so it is not part of the fingerprint and a replay applies the fields of the repeated request.
+ * A batch is fingerprinted by the SHA-256 digest of its commands, a hash code would let a different batch
+ * with the same size and hash replay the recorded results.
+ */
+final class IdempotentRequests {
+
+    static final String HEADER = "Idempotency-Key";
+
+    static final TypeReference<CarResponse> CAR_RESPONSE = new TypeReference<>() {
+    };
+    static final TypeReference<StartResult> START_RESULT = new TypeReference<>() {
+    };
+    static final TypeReference<List<Long>> CAR_IDS = new TypeReference<>() {
+    };
+    static final TypeReference<List<CarCommandResult>> COMMAND_RESULTS = new TypeReference<>() {
+    };
+
+    private IdempotentRequests() {
+    }
+
+    static String createCar() {
+        return "createCar";
+    }
+
+    static String createCars(int count) {
+        return "bulk:" + count;
+    }
+
+    static String start(Long carId) {
+        return "start:" + carId;
+    }
+
+    static String stop(Long carId) {
+        return "stop:" + carId;
+    }
+
+    static String refuel(Long carId, int amount) {
+        return "refuel:" + carId + ":" + amount;
+    }
+
+    static String batch(List<CarCommand> commands) {
+        MessageDigest digest = sha256();
+        for (CarCommand command : commands) {
+            String canonical = command.getCarId() + ":" + command.getType() + ":" + command.getAmount() + ";";
+            digest.update(canonical.getBytes(StandardCharsets.UTF_8));
+        }
+        return "batch:" + commands.size() + ":" + String.format("%064x", new BigInteger(1, digest.digest()));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.car.controller;
+
+import com.example.car.dto.CarResponse;
+import com.example.car.dto.ErrorResponse;
+import com.example.car.dto.StartResult;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+/**
+ * Maps the result of a start to its HTTP response. A started car is returned with 200, an unknown car is 404,
+ * an empty tank is 409 as the state of the car conflicts with the request, and a refusing engine is 422.
+ */
+final class StartResponses {
+
+    private StartResponses() {
+    }
+
+    static ResponseEntity<MappingJacksonValue> of(StartResult result, String fields) {
+        if (result.isStarted()) {
+            return ResponseEntity.ok(FieldSelection.select(CarResponse.from(result.getCar()), fields));
+        }
+        StartResult.Reason reason = result.getReason();
+        return ResponseEntity.status(statusOf(reason))
+                .body(new MappingJacksonValue(new ErrorResponse(reason.name(), reason.getMessage())));
+    }
+
+    private static HttpStatus statusOf(StartResult.Reason reason) {
+        switch (reason) {
+            case NOT_FOUND:
+                return HttpStatus.NOT_FOUND;
+            case NO_FUEL:
+                return HttpStatus.CONFLICT;
+            case ENGINE_FAILURE:
+                return HttpStatus.UNPROCESSABLE_ENTITY;
+            default:
+                return HttpStatus.OK;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.car.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single start, stop or refuel instruction of a batch request.
+ * The amount is only used by {@link CarCommandType#REFUEL} commands.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarCommand {
+
+    private Long carId;
+    private CarCommandType type;
+    private int amount;
+}
@@ -0,0 +1,42 @@
+package com.example.car.dto;
+
+import com.example.car.entity.Car;
+import lombok.Data;
+
+/**
+ * Outcome of one command of a batch request.
+ * On success the fuel level and engine state are captured right after the command was applied,
+ * on failure the name and message of the exception are reported instead.
+ */
+@Data
+public class CarCommandResult {
+
+    private Long carId;
+    private CarCommandType type;
+    private boolean success;
+    private Integer fuelLevel;
+    private Boolean engineRunning;
+    private String error;
+    private String message;
+
+    public static CarCommandResult success(CarCommand command, Car car) {
+        CarCommandResult result = new CarCommandResult();
+        result.setCarId(command.getCarId());
+        result.setType(command.getType());
+        result.setSuccess(true);
+        result.setFuelLevel(car.getFuelTank().getFuelLevel());
+        result.setEngineRunning(car.getEngine().isRunning());
+        result.setMessage(car.getDashboard().getCurrentMessage());
+        return result;
+    }
+
+    public static CarCommandResult failure(CarCommand command, RuntimeException exception) {
+        CarCommandResult result = new CarCommandResult();
+        result.setCarId(command.getCarId());
+        result.setType(command.getType());
+        result.setSuccess(false);
+        result.setError(exception.getClass().getSimpleName());
+        result.setMessage(exception.getMessage());
+        return result;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.car.dto;
+
+public enum CarCommandType {
+    START,
+    STOP,
+    REFUEL
+}
@@ -0,0 +1,19 @@
+package com.example.car.dto;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * An operation on a car as it is appended to the journal. The sequence number is counted per car from 1,
+ * the fuel delta is the change of the fuel level, zero for events that do not touch the tank.
+ */
+@Value
+public class CarEvent {
+
+    Long carId;
+    long seq;
+    CarEventType type;
+    int fuelDelta;
+    Instant recordedAt;
+}
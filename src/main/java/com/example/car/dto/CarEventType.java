@@ -0,0 +1,27 @@
+package com.example.car.dto;
+
+/**
+ * Kinds of events in the car journal, stored by their compact code.
+ */
+public enum CarEventType {
+    CAR_STARTED(1),
+    CAR_STOPPED(2),
+    REFUELED(3),
+    ENGINE_FAILED(4);
+
+    private static final CarEventType[] BY_CODE = {null, CAR_STARTED, CAR_STOPPED, REFUELED, ENGINE_FAILED};
+
+    private final int code;
+
+    CarEventType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static CarEventType fromCode(int code) {
+        return BY_CODE[code];
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.car.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated fleet listing.
+ * {@code nextAfterId} is the {@code afterId} to request the next page with, or null when this is the last page.
+ */
+@Value
+public class CarPage {
+
+    List<CarSummary> cars;
+    Long nextAfterId;
+}
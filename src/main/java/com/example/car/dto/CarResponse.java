@@ -0,0 +1,26 @@
+package com.example.car.dto;
+
+import com.example.car.entity.Car;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.Value;
+
+/**
+ * Response of the car endpoints, the flat state of a car instead of its entity graph.
+ * Serialized through the {@value #FIELD_FILTER} filter, so a request can narrow it down to the fields it needs.
+ */
+@Value
+@JsonFilter(CarResponse.FIELD_FILTER)
+public class CarResponse {
+
+    public static final String FIELD_FILTER = "carResponseFields";
+
+    Long carId;
+    boolean running;
+    int fuelLevel;
+    String message;
+
+    public static CarResponse from(Car car) {
+        return new CarResponse(car.getId(), car.getEngine().isRunning(),
+                car.getFuelTank().getFuelLevel(), car.getDashboard().getCurrentMessage());
+    }
+}
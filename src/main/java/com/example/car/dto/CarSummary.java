@@ -0,0 +1,14 @@
+package com.example.car.dto;
+
+import lombok.Value;
+
+/**
+ * Read projection of one car for fleet listings and exports, holding only its engine state and fuel level.
+ */
+@Value
+public class CarSummary {
+
+    Long carId;
+    boolean engineRunning;
+    int fuelLevel;
+}
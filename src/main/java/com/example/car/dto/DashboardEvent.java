@@ -0,0 +1,13 @@
+package com.example.car.dto;
+
+import lombok.Value;
+
+/**
+ * A message shown on the dashboard of a car.
+ */
+@Value
+public class DashboardEvent {
+
+    Long carId;
+    String message;
+}
@@ -0,0 +1,13 @@
+package com.example.car.dto;
+
+import lombok.Value;
+
+/**
+ * Read projection holding only the columns needed to report whether a car's engine is running.
+ */
+@Value
+public class EngineStatusView {
+
+    Long engineId;
+    boolean running;
+}
@@ -0,0 +1,13 @@
+package com.example.car.dto;
+
+import lombok.Value;
+
+/**
+ * Body of a failed request, the name of the failure and its human readable message.
+ */
+@Value
+public class ErrorResponse {
+
+    String error;
+    String message;
+}
@@ -0,0 +1,24 @@
+package com.example.car.dto;
+
+import lombok.Value;
+
+/**
+ * Operations of the last {@code windowSeconds} seconds on this node, with per-minute rates averaged over the window,
+ * and the fuel levels of the whole fleet. {@code fuelLevelCounts[i]} is the number of cars with
+ * {@code i * fuelLevelBucketWidth} up to {@code (i + 1) * fuelLevelBucketWidth} liters, the last bucket has no upper bound.
+ * The start failure rate counts engine failures and empty tanks against all start attempts, it is 0 without attempts.
+ */
+@Value
+public class FleetTelemetry {
+
+    int windowSeconds;
+    long starts;
+    long startFailures;
+    double startFailureRate;
+    double startsPerMinute;
+    long refuels;
+    long refueledLiters;
+    double refueledLitersPerMinute;
+    int fuelLevelBucketWidth;
+    long[] fuelLevelCounts;
+}
@@ -0,0 +1,15 @@
+package com.example.car.dto;
+
+import lombok.Value;
+
+/**
+ * The summed fuel change of one tank in a batch, applied only if the tank holds at least {@code requiredLevel},
+ * the lowest level at which none of the batch's starts overdraws it.
+ */
+@Value
+public class FuelLevelChange {
+
+    Long fuelTankId;
+    int delta;
+    int requiredLevel;
+}
@@ -0,0 +1,13 @@
+package com.example.car.dto;
+
+import lombok.Value;
+
+/**
+ * Read projection holding only the columns needed to report a car's fuel level.
+ */
+@Value
+public class FuelLevelView {
+
+    Long fuelTankId;
+    int fuelLevel;
+}
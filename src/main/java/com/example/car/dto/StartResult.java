@@ -0,0 +1,75 @@
+package com.example.car.dto;
+
+import com.example.car.entity.Car;
+import com.example.car.exceptions.CarNotFoundException;
+import com.example.car.exceptions.EngineFailureException;
+import com.example.car.exceptions.FuelEmptyException;
+import com.example.car.messages.MessageCollector;
+import lombok.Value;
+
+/**
+ * Outcome of a start. A refusing engine, an empty tank and an unknown car are expected outcomes and are returned
+ * instead of thrown, so they cost neither a stack trace nor a transaction rollback.
+ * The car is only set when it started.
+ */
+@Value
+public class StartResult {
+
+    public enum Reason {
+        OK(MessageCollector.CAR_STARTED),
+        ENGINE_FAILURE(MessageCollector.ENGINE_FAILURE),
+        NO_FUEL(MessageCollector.FUEL_EMPTY),
+        NOT_FOUND(MessageCollector.CAR_NOT_FOUND);
+
+        private final String message;
+
+        Reason(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * The exception of a failure, as the exception based API and the batch results report it.
+         */
+        public RuntimeException toException() {
+            switch (this) {
+                case ENGINE_FAILURE:
+                    return new EngineFailureException();
+                case NO_FUEL:
+                    return new FuelEmptyException();
+                case NOT_FOUND:
+                    return new CarNotFoundException();
+                default:
+                    throw new IllegalStateException(name());
+            }
+        }
+    }
+
+    Reason reason;
+    Car car;
+
+    public static StartResult started(Car car) {
+        return new StartResult(Reason.OK, car);
+    }
+
+    public static StartResult failed(Reason reason) {
+        return new StartResult(reason, null);
+    }
+
+    public boolean isStarted() {
+        return reason == Reason.OK;
+    }
+
+    /**
+     * Returns the started car, or throws the exception of the failure for callers of the exception based API.
+     */
+    public Car orElseThrow() {
+        if (!isStarted()) {
+            throw reason.toException();
+        }
+        return car;
+    }
+}
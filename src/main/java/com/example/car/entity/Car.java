@@ -9,7 +9,8 @@ import javax.persistence.*;
 public class Car {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "car_seq")
+    @SequenceGenerator(name = "car_seq", sequenceName = "car_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(cascade = CascadeType.ALL)
@@ -23,4 +24,8 @@ public class Car {
     @OneToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "dashboard", referencedColumnName = "id")
     private Dashboard dashboard;
+
+    // Last journal event included in the rows of the car, only written by the event-sourced mode
+    @Column(name = "event_seq", insertable = false, updatable = false)
+    private long eventSeq;
 }
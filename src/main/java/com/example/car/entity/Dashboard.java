@@ -1,6 +1,7 @@
 package com.example.car.entity;
 
 import lombok.Data;
+import org.hibernate.annotations.OptimisticLock;
 
 import javax.persistence.*;
 
@@ -9,13 +10,15 @@ import javax.persistence.*;
 public class Dashboard {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dashboard_seq")
+    @SequenceGenerator(name = "dashboard_seq", sequenceName = "dashboard_seq", allocationSize = 50)
     private Long id;
 
+    // Last message wins, writing it must not make concurrent changes of the car conflict
     @Column(name = "current_message")
+    @OptimisticLock(excluded = true)
     private String currentMessage;
 
-    public void displayMessage() {
-        System.out.println(currentMessage);
-    }
+    @Version
+    private Long version;
 }
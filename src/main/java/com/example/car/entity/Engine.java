@@ -2,17 +2,29 @@ package com.example.car.entity;
 
 import lombok.Data;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
 
 @Data
 @Entity
 public class Engine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "engine_seq")
+    @SequenceGenerator(name = "engine_seq", sequenceName = "engine_seq", allocationSize = 50)
     private Long id;
     private boolean running;
+
+    // Successful starts over the lifetime of the engine, drives the wear-based failure model.
+    // Only written through EngineRepository.countStart, never by dirty checking
+    @Column(name = "start_count", updatable = false)
+    private long startCount;
+
+    @Version
+    private Long version;
 }
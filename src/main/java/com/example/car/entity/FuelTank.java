@@ -8,12 +8,17 @@ import javax.persistence.*;
 public class FuelTank {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fuel_tank_seq")
+    @SequenceGenerator(name = "fuel_tank_seq", sequenceName = "fuel_tank_seq", allocationSize = 50)
     private Long id;
 
-    @Column(name = "fuel_level")
+    // Only written through the conditional updates of FuelTankRepository, never by dirty checking
+    @Column(name = "fuel_level", updatable = false)
     private int fuelLevel;
 
+    @Version
+    private Long version;
+
     private static final int DEFAULT_FUEL_LEVEL = 50;
 
     public FuelTank(){
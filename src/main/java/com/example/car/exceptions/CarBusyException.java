@@ -0,0 +1,10 @@
+package com.example.car.exceptions;
+
+import com.example.car.messages.MessageCollector;
+
+public class CarBusyException extends RuntimeException{
+
+    public CarBusyException() {
+        super(MessageCollector.CAR_BUSY, null, false, false);
+    }
+}
@@ -5,6 +5,6 @@ import com.example.car.messages.MessageCollector;
 public class CarNotFoundException extends RuntimeException{
 
     public CarNotFoundException() {
-        super(MessageCollector.CAR_NOT_FOUND);
+        super(MessageCollector.CAR_NOT_FOUND, null, false, false);
     }
 }
@@ -5,6 +5,6 @@ import com.example.car.messages.MessageCollector;
 public class EngineFailureException extends RuntimeException{
 
     public EngineFailureException() {
-        super(MessageCollector.ENGINE_FAILURE);
+        super(MessageCollector.ENGINE_FAILURE, null, false, false);
     }
 }
@@ -5,6 +5,6 @@ import com.example.car.messages.MessageCollector;
 public class FuelEmptyException extends RuntimeException{
 
     public FuelEmptyException() {
-        super(MessageCollector.FUEL_EMPTY);
+        super(MessageCollector.FUEL_EMPTY, null, false, false);
     }
 }
@@ -4,7 +4,7 @@ import com.example.car.exceptions.CarNotFoundException;
 import com.example.car.exceptions.EngineFailureException;
 import com.example.car.exceptions.FuelEmptyException;
 
-import java.text.MessageFormat;
+import java.net.URI;
 
 public class MessageCollector {
 
@@ -15,58 +15,103 @@ public class MessageCollector {
     public static final String ENGINE_IS_RUNNING = "Engine is running.";
     public static final String ENGINE_IS_NOT_RUNNING = "Engine is not running.";
     public static final String CAR_NOT_FOUND = "Car not found";
+    public static final String CAR_BUSY = "Too many pending commands for this car, please retry later.";
+    public static final String CONCURRENT_CHANGE = "The car kept being changed concurrently, please retry.";
+    public static final String FUEL_RAN_OUT = "Engine stopped, the fuel tank is empty.";
 
-    // Method for dynamic messages (using String.format)
+    // Log templates, passed to SLF4J with their arguments so they are only formatted when the level is enabled
+    public static final String CAR_CREATED_LOG = "Car with {} as ID created successfully.";
+    public static final String CARS_CREATED_LOG = "{} cars created in bulk.";
+    public static final String CAR_STARTED_LOG = "Car with the id {} started successfully. Remaining fuel: {} liters.";
+    public static final String CAR_STOPPED_LOG = "Car with the id {} stopped. Remaining fuel: {} liters.";
+    public static final String CAR_REFUELED_LOG = "Fueltank with id {} from car with {} ID has been refueled with {} liters of fuel. Current fuel level is {} liters";
+    public static final String CAR_FUEL_LEVEL_LOG = "The car {} has {} liters of fuel remaining in fuelTank with id of {}.";
+    public static final String ENGINE_STATUS_LOG = "Engine with {} ID from Car with {} ID {}";
+    public static final String ENGINE_STATUS_RUNNING = "is running.";
+    public static final String ENGINE_STATUS_NOT_RUNNING = "is not running.";
+    public static final String ENGINE_FAILURE_LOG = errorTemplate(EngineFailureException.class,
+            "Error with engine with ID of {} from car with id of {}.");
+    public static final String FUEL_FAILURE_LOG = errorTemplate(FuelEmptyException.class,
+            "Error with fuelTank with ID of {} from car with id of {}.\nInsufficient fuel: Current fuel level is {} liters");
+    public static final String CAR_NOT_FOUND_LOG = errorTemplate(CarNotFoundException.class, "Car with {} not found.");
+    public static final String CARS_FLUSHED_LOG = "Flushed the state of {} cars to the database.";
+    public static final String CARS_FLUSH_FAILED_LOG = "Failed to flush the state of {} cars, retrying on next flush.";
+    public static final String EVENTS_APPENDED_LOG = "Appended {} events to the car journal.";
+    public static final String IDEMPOTENT_REPLAY_LOG = "Replaying the recorded response of idempotency key {}.";
+    public static final String IDEMPOTENCY_RECORD_FAILED_LOG = "Failed to record the response of idempotency key {} in the database.";
+    public static final String IDEMPOTENCY_RELEASE_FAILED_LOG = "Failed to release the claim of idempotency key {}, other nodes wait for it until the claim timeout.";
+    public static final String IDEMPOTENCY_PURGE_FAILED_LOG = "Failed to delete the expired idempotency keys, retrying on next purge.";
+    public static final String EVENTS_APPEND_FAILED_LOG = "Failed to append {} events to the car journal, retrying on next flush.";
+    public static final String OPTIMISTIC_LOCK_RETRY_LOG = "Concurrent change detected during {}, starting attempt {} of {} in {} ms.";
+    public static final String OPTIMISTIC_LOCK_EXHAUSTED_LOG = "Concurrent changes kept {} from completing, giving up after {} attempts.";
+    public static final String SIMULATION_TICK_LOG = "Simulated {} running cars in {} ms, {} engines stopped for lack of fuel.";
+    public static final String SIMULATION_TICK_FAILED_LOG = "Fuel consumption tick failed, retrying on next tick.";
+    public static final String SIMULATION_TICK_CLAIMED_LOG = "Fuel consumption tick {} was already run by another node, skipping it.";
+    public static final String CAR_EVENT_SUBSCRIBER_GONE_LOG = "Subscriber of the changes of car {} is gone, cancelling its subscription.";
+    public static final String DASHBOARD_SUBSCRIBER_FAILED_LOG = "Dashboard subscriber failed to handle a message of car {}.";
+    public static final String FUEL_TELEMETRY_REFRESH_FAILED_LOG = "Failed to rebuild the fuel level histogram, retrying on next refresh.";
+    public static final String LIQUIBASE_VERIFIED_LOG = "Verified that every change set of {} has been applied.";
+    public static final String CDS_TRAINING_FAILED_LOG = "CDS training requests failed, the archive will miss the classes of the request path.";
+
+    // Startup failures
+    public static final String LIQUIBASE_VERIFY_FAILED = "Failed to verify the Liquibase change log";
+    public static final String SIMULATION_WITH_IN_MEMORY_STATE = "car.simulation.enabled cannot be combined with write-behind or event-sourced mode";
+
+    // Dashboard messages, these are always shown so they are built eagerly with plain concatenation
     public static String carRefueled(int amount, int currentFuel) {
-        return MessageFormat.format("Car has been refueled with {0} liters of fuel. Current fuel level is {1} liters", amount, currentFuel);
+        return "Car has been refueled with " + amount + " liters of fuel. Current fuel level is " + currentFuel + " liters";
     }
 
-    public static String carRefueledDetailed(Long carId, Long fuelTankId,int amount, int currentFuel) {
-        return MessageFormat.format("Fueltank with id {0} from car with {1} ID has been refueled with {2} liters of fuel. Current fuel level is {3} liters",fuelTankId, carId, amount, currentFuel);
+    public static String carFuelLevel(Long carId, int fuelLevel) {
+        return "The car " + carId + " has " + fuelLevel + " liters of fuel remaining.";
     }
 
-    public static String carCreated(Long carId) {
-        return String.format("Car with " + carId + " as ID created successfully.");
+    public static String invalidBulkCount(int count, int maxCount) {
+        return "The number of cars to create must be between 1 and " + maxCount + ", got " + count + ".";
     }
 
-    public static String carStarted(Long carId, int fuelLevel) {
-        return MessageFormat.format("Car with the id {0} started successfully. Remaining fuel: {1} liters.", carId, fuelLevel);
+    public static String invalidPageSize(int limit, int maxLimit) {
+        return "The page size must be between 1 and " + maxLimit + ", got " + limit + ".";
     }
 
-    public static String carStopped(Long carId, int fuelLevel) {
-        return MessageFormat.format("Car with the id {0} stopped. Remaining fuel: {1} liters.", carId, fuelLevel);
+    public static String invalidRefuelAmount(int amount) {
+        return "The amount of fuel to add must be positive, got " + amount + ".";
     }
 
-    public static String carFuelLevel(Long carId, int fuelLevel) {
-        return MessageFormat.format("The car {0} has {1} liters of fuel remaining.", carId, fuelLevel);
+    public static String invalidBatchSize(int size, int maxSize) {
+        return "A batch must hold at most " + maxSize + " commands, got " + size + ".";
     }
-    public static String carFuelLevelDetailed(Long carId, int fuelLevel, Long fuelTankId) {
-        return MessageFormat.format("The car {0} has {1} liters of fuel remaining in fuelTank with id of {2}.", carId, fuelLevel, fuelTankId);
+
+    public static String invalidBatchCommand(int index) {
+        return "Command " + index + " of the batch needs a carId and a type.";
+    }
+
+    public static String invalidIdempotencyKey(int maxLength) {
+        return "The Idempotency-Key header must not be blank or longer than " + maxLength + " characters.";
+    }
+
+    public static String idempotencyKeyReused(String idempotencyKey) {
+        return "The Idempotency-Key " + idempotencyKey + " was already used for a different request.";
     }
 
-    public static String isEngineRunning(Long carId, Long engineId, boolean isRunning){
-        String engineStatus = isRunning? "is running." : "is not running.";
-        return MessageFormat.format("Engine with {0} ID from Car with {1} ID {2}",engineId, carId, engineStatus);
+    public static String invalidTelemetryWindow(int seconds, int maxSeconds) {
+        return "The telemetry window must be between 1 and " + maxSeconds + " seconds, got " + seconds + ".";
     }
 
-    public static String engineFailureDetails(Long carId, Long engineId) {
-        String errorDetails = MessageFormat.format("Error with engine with ID of {0} from car with id of {1}.", carId, engineId);
-        return errorMessage(EngineFailureException.class.getName(), errorDetails);
+    public static String liquibaseChangesPending(String changeSets) {
+        return "car.liquibase.mode is verify, but these change sets have not been applied yet: " + changeSets;
     }
 
-    public static String fuelFailureDetails(Long carId, Long fuelTankId, int fuelLevel) {
-        String errorDetails = MessageFormat.format("Error with fuelTank with ID of {0} from car with id of {1}.\n" +
-                "Insufficient fuel: Current fuel level is {2} liters", fuelTankId, carId, fuelLevel);
-        return errorMessage(FuelEmptyException.class.getName(), errorDetails);
+    public static String unknownEngineFailureModel(String model) {
+        return "Unknown car.engine-failure.model: " + model;
     }
 
-    public static final String carNotFoundDetailed(Long carId){
-        String errorDetails = MessageFormat.format("Car with {0} not found.", carId);
-        return errorMessage(CarNotFoundException.class.getName(), errorDetails);
+    public static String cdsTrainingRequestFailed(URI uri, int statusCode) {
+        return uri + " answered " + statusCode;
     }
 
-    // Utility method to handle exceptions and format error messages
-    public static String errorMessage(String errorClass, String errorDetail) {
-        return MessageFormat.format("Error: {0}. Details: {1}.", errorClass, errorDetail);
+    // Builds an error log template once, at class initialization
+    private static String errorTemplate(Class<? extends RuntimeException> errorClass, String errorDetail) {
+        return "Error: " + errorClass.getName() + ". Details: " + errorDetail + ".";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+package com.example.car.repository;
+
+import com.example.car.dto.FuelLevelChange;
+import com.example.car.entity.Car;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk operations on cars that need direct control over the persistence context or the JDBC batches.
+ */
+public interface CarBulkRepository {
+
+    /**
+     * Persists the cars with their parts and detaches them again, chunk by chunk.
+     * Each chunk goes out as batched INSERTs, and clearing the persistence context afterwards keeps
+     * the flushes of large bulks from dirty checking every car persisted before.
+     * Must be called within a transaction that holds no other managed entities.
+     */
+    void persistAll(List<Car> cars);
+
+    /**
+     * Locks the fuel tanks of the cars until the end of the transaction, in id order so concurrent batches cannot
+     * deadlock. Tanks loaded afterwards hold the current level, and no other transaction can change it until then.
+     */
+    void lockFuelTanks(Collection<Long> carIds);
+
+    /**
+     * Applies the fuel changes with one JDBC batch of conditional UPDATEs, one per tank, and bumps the versions.
+     * Throws an {@link org.springframework.orm.ObjectOptimisticLockingFailureException} if a tank holds less than
+     * its required level, the surrounding transaction is then rolled back.
+     */
+    void changeFuelLevels(List<FuelLevelChange> changes);
+
+    /**
+     * Adds the starts to the start counts of the engines, keyed by engine id, with one JDBC batch of UPDATEs.
+     */
+    void countStarts(Map<Long, Integer> startsByEngineId);
+}
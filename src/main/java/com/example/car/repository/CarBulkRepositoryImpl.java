@@ -0,0 +1,85 @@
+package com.example.car.repository;
+
+import com.example.car.dto.FuelLevelChange;
+import com.example.car.entity.Car;
+import com.example.car.entity.FuelTank;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+class CarBulkRepositoryImpl implements CarBulkRepository {
+
+    private static final String CHANGE_FUEL_LEVEL = "update fuel_tank set fuel_level = fuel_level + ?, version = version + 1"
+            + " where id = ? and fuel_level >= ?";
+    private static final String LOCK_FUEL_TANKS = "select f.id from fuel_tank f"
+            + " where f.id in (select c.fuel_tank from car c where c.id in (:carIds)) order by f.id for update";
+    private static final String COUNT_STARTS = "update engine set start_count = start_count + ? where id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${car.bulk.flush-size:1000}")
+    private int flushSize;
+
+    @Override
+    public void persistAll(List<Car> cars) {
+        for (int i = 0; i < cars.size(); i++) {
+            entityManager.persist(cars.get(i));
+            if ((i + 1) % flushSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public void lockFuelTanks(Collection<Long> carIds) {
+        if (carIds.isEmpty()) {
+            return;
+        }
+        new NamedParameterJdbcTemplate(jdbcTemplate).queryForList(LOCK_FUEL_TANKS,
+                new MapSqlParameterSource("carIds", carIds), Long.class);
+    }
+
+    @Override
+    public void changeFuelLevels(List<FuelLevelChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        int[] updatedRows = jdbcTemplate.batchUpdate(CHANGE_FUEL_LEVEL, changes.stream()
+                .map(change -> new Object[]{change.getDelta(), change.getFuelTankId(), change.getRequiredLevel()})
+                .collect(Collectors.toList()));
+        for (int i = 0; i < updatedRows.length; i++) {
+            // Drivers may report SUCCESS_NO_INFO for batched statements, only an explicit 0 is a miss
+            if (updatedRows[i] == 0) {
+                throw new ObjectOptimisticLockingFailureException(FuelTank.class, changes.get(i).getFuelTankId());
+            }
+        }
+    }
+
+    @Override
+    public void countStarts(Map<Long, Integer> startsByEngineId) {
+        if (startsByEngineId.isEmpty()) {
+            return;
+        }
+        List<Object[]> arguments = new ArrayList<>(startsByEngineId.size());
+        startsByEngineId.forEach((engineId, starts) -> arguments.add(new Object[]{starts, engineId}));
+        jdbcTemplate.batchUpdate(COUNT_STARTS, arguments);
+    }
+}
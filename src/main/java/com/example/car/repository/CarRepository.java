@@ -1,7 +1,70 @@
 package com.example.car.repository;
 
+import com.example.car.dto.CarSummary;
+import com.example.car.dto.EngineStatusView;
+import com.example.car.dto.FuelLevelView;
 import com.example.car.entity.Car;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface CarRepository extends JpaRepository<Car, Long> {
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface CarRepository extends JpaRepository<Car, Long>, CarBulkRepository {
+
+    /**
+     * Loads the car together with its engine, fuel tank and dashboard in a single query.
+     */
+    @EntityGraph(attributePaths = {"engine", "fuelTank", "dashboard"})
+    Optional<Car> findWithPartsById(Long id);
+
+    /**
+     * Loads the given cars together with their engine, fuel tank and dashboard in a single query.
+     */
+    @Query("select c from Car c join fetch c.engine join fetch c.fuelTank join fetch c.dashboard where c.id in :ids")
+    List<Car> findAllWithPartsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.example.car.dto.FuelLevelView(f.id, f.fuelLevel) " +
+            "from Car c join c.fuelTank f where c.id = :carId")
+    Optional<FuelLevelView> findFuelLevelById(@Param("carId") Long carId);
+
+    @Query("select count(e) from Engine e where e.running = true")
+    long countRunningEngines();
+
+    @Query("select new com.example.car.dto.EngineStatusView(e.id, e.running) " +
+            "from Car c join c.engine e where c.id = :carId")
+    Optional<EngineStatusView> findEngineStatusById(@Param("carId") Long carId);
+
+    /**
+     * Returns the cars with an id above {@code afterId} in id order, optionally only those with the given
+     * engine state or with less fuel than {@code fuelBelow}. The page size is taken from the pageable,
+     * its offset must stay 0: the position is carried by {@code afterId}, so deep pages cost the same as the first.
+     */
+    @Query("select new com.example.car.dto.CarSummary(c.id, e.running, f.fuelLevel) " +
+            "from Car c join c.engine e join c.fuelTank f " +
+            "where c.id > :afterId " +
+            "and (:running is null or e.running = :running) " +
+            "and (:fuelBelow is null or f.fuelLevel < :fuelBelow) " +
+            "order by c.id")
+    List<CarSummary> findSummariesAfter(@Param("afterId") Long afterId,
+                                        @Param("running") Boolean running,
+                                        @Param("fuelBelow") Integer fuelBelow,
+                                        Pageable pageable);
+
+    /**
+     * Streams every car in id order through a forward-only cursor, fetching the rows in chunks.
+     * The projections are not managed, so memory use stays constant however large the fleet is.
+     * Must be consumed and closed within a transaction.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.car.dto.CarSummary(c.id, e.running, f.fuelLevel) " +
+            "from Car c join c.engine e join c.fuelTank f order by c.id")
+    Stream<CarSummary> streamAllSummaries();
 }
@@ -0,0 +1,21 @@
+package com.example.car.repository;
+
+import com.example.car.entity.Engine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Counts engine starts with a single UPDATE, so concurrent starts of one car neither lose a start
+ * nor conflict on the engine's version. Only switching the engine on or off is versioned.
+ */
+public interface EngineRepository extends JpaRepository<Engine, Long> {
+
+    /**
+     * Adds one start to the engine. Returns the number of updated rows, 0 when the engine does not exist.
+     */
+    @Modifying
+    @Query("update Engine e set e.startCount = e.startCount + 1 where e.id = :id")
+    int countStart(@Param("id") Long id);
+}
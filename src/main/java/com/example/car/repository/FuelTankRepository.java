@@ -0,0 +1,38 @@
+package com.example.car.repository;
+
+import com.example.car.entity.FuelTank;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Changes the fuel level with single conditional UPDATE statements, so concurrent requests for the same car
+ * never lose an update and never take the level below zero, without locking the row up front.
+ * The version is bumped as well, so optimistic readers of the tank notice the change.
+ */
+public interface FuelTankRepository extends JpaRepository<FuelTank, Long> {
+
+    /**
+     * Takes the amount from the tank if at least that much fuel is left.
+     * Returns the number of updated rows, 0 when the tank does not exist or holds less than the amount.
+     */
+    @Modifying
+    @Query("update FuelTank f set f.fuelLevel = f.fuelLevel - :amount, f.version = f.version + 1 where f.id = :id and f.fuelLevel >= :amount")
+    int consumeFuel(@Param("id") Long id, @Param("amount") int amount);
+
+    /**
+     * Adds the amount to the tank. Returns the number of updated rows, 0 when the tank does not exist.
+     * The amount must be positive, {@code CarService} rejects any other before calling this.
+     */
+    @Modifying
+    @Query("update FuelTank f set f.fuelLevel = f.fuelLevel + :amount, f.version = f.version + 1 where f.id = :id")
+    int addFuel(@Param("id") Long id, @Param("amount") int amount);
+
+    /**
+     * Reads the fuel level from the database, not from the loaded tank. Called right after a change of the tank,
+     * the row lock taken by that change is held until the transaction ends, so the level cannot move in between.
+     */
+    @Query("select f.fuelLevel from FuelTank f where f.id = :id")
+    int findFuelLevelById(@Param("id") Long id);
+}
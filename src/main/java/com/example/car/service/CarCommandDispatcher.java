@@ -0,0 +1,98 @@
+package com.example.car.service;
+
+import com.example.car.exceptions.CarBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs the commands of a car one after the other on the shard its id hashes to.
+ * Every shard is a single thread with a bounded mailbox, so commands for the same car never overlap and
+ * need no lock, while different cars run in parallel on the other shards.
+ * A command for a full mailbox is rejected right away with a {@link CarBusyException} instead of waiting.
+ * The mailbox depth of every shard is exported as {@code car.dispatcher.mailbox.depth},
+ * rejected commands as {@code car.dispatcher.rejected}, both tagged with the shard.
+ */
+@Component
+@ConditionalOnProperty(name = "car.dispatcher.enabled", havingValue = "true")
+public class CarCommandDispatcher {
+
+    private final ThreadPoolExecutor[] shards;
+    private final Counter[] rejected;
+
+    public CarCommandDispatcher(MeterRegistry meterRegistry,
+                                @Value("${car.dispatcher.shards:0}") int shardCount,
+                                @Value("${car.dispatcher.mailbox-capacity:1000}") int mailboxCapacity) {
+        int shardTotal = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.shards = new ThreadPoolExecutor[shardTotal];
+        this.rejected = new Counter[shardTotal];
+        for (int i = 0; i < shardTotal; i++) {
+            String shard = String.valueOf(i);
+            shards[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(mailboxCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "car-shard-" + shard);
+                thread.setDaemon(true);
+                return thread;
+            });
+            Gauge.builder("car.dispatcher.mailbox.depth", shards[i].getQueue(), BlockingQueue::size)
+                    .tag("shard", shard)
+                    .register(meterRegistry);
+            rejected[i] = Counter.builder("car.dispatcher.rejected")
+                    .tag("shard", shard)
+                    .register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+        for (ThreadPoolExecutor shard : shards) {
+            shard.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Queues the command on the shard of the car and returns its eventual result.
+     */
+    public <T> CompletableFuture<T> submit(Long carId, Supplier<T> command) {
+        int shard = shardOf(carId);
+        try {
+            return CompletableFuture.supplyAsync(command, shards[shard]);
+        } catch (RejectedExecutionException e) {
+            rejected[shard].increment();
+            throw new CarBusyException();
+        }
+    }
+
+    /**
+     * Runs the command on the shard of the car and waits for it. Exceptions of the command are rethrown as they are.
+     */
+    public <T> T execute(Long carId, Supplier<T> command) {
+        try {
+            return submit(carId, command).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    int shardOf(Long carId) {
+        return Math.floorMod(carId.hashCode(), shards.length);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.car.service;
+
+import com.example.car.dto.CarEvent;
+import com.example.car.dto.CarEventType;
+import com.example.car.entity.Car;
+import com.example.car.entity.Engine;
+import com.example.car.entity.FuelTank;
+import com.example.car.messages.MessageCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only journal of the car operations in event-sourced mode.
+ * Events are queued in memory and a background writer inserts them in JDBC batches, so an operation
+ * costs a queue offer instead of a round-trip. Events that have not been written yet are lost on a crash,
+ * at most one flush interval worth of them.
+ * The car rows written by the {@link CarStateStore} are the snapshots, a car is rebuilt by replaying the events
+ * recorded after the sequence number of its snapshot.
+ */
+@Component
+@ConditionalOnProperty(name = "car.event-sourcing.enabled", havingValue = "true")
+public class CarEventJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarEventJournal.class);
+
+    private static final String INSERT_EVENT = "insert into car_event (car_id, seq, type, fuel_delta, recorded_at) values (?, ?, ?, ?, ?)";
+    private static final String SELECT_TAILS = "select e.car_id, e.seq, e.type, e.fuel_delta, e.recorded_at from car_event e"
+            + " join car c on c.id = e.car_id"
+            + " where e.car_id in (:carIds) and e.seq > c.event_seq"
+            + " order by e.car_id, e.seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long flushIntervalMillis;
+    private final int batchSize;
+
+    private final Queue<CarEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "car-event-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CarEventJournal(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${car.event-sourcing.journal-flush-interval-ms:100}") long flushIntervalMillis,
+                           @Value("${car.event-sourcing.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    void startWriter() {
+        writer.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(flushIntervalMillis * 2, TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    /**
+     * Queues the event for the next flush.
+     */
+    public void append(CarEvent event) {
+        pendingEvents.offer(event);
+    }
+
+    /**
+     * Writes every queued event in one transaction and returns whether that succeeded.
+     * If the write fails the events are queued again and retried on the next flush.
+     */
+    public synchronized boolean flush() {
+        List<CarEvent> events = new ArrayList<>();
+        for (CarEvent event = pendingEvents.poll(); event != null; event = pendingEvents.poll()) {
+            events.add(event);
+        }
+        if (events.isEmpty()) {
+            return true;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(events));
+            logger.debug(MessageCollector.EVENTS_APPENDED_LOG, events.size());
+            return true;
+        } catch (RuntimeException e) {
+            logger.error(MessageCollector.EVENTS_APPEND_FAILED_LOG, events.size(), e);
+            pendingEvents.addAll(events);
+            return false;
+        }
+    }
+
+    /**
+     * Brings the cars from their snapshot up to date by applying the events recorded after it,
+     * reading the tails of all of them with a single query.
+     */
+    public void replay(Collection<Car> cars) {
+        if (cars.isEmpty()) {
+            return;
+        }
+        Map<Long, Car> carsById = cars.stream()
+                .collect(Collectors.toMap(Car::getId, Function.identity()));
+        namedParameterJdbcTemplate.query(SELECT_TAILS, new MapSqlParameterSource("carIds", carsById.keySet()), resultSet -> {
+            CarEvent event = new CarEvent(
+                    resultSet.getLong(1),
+                    resultSet.getLong(2),
+                    CarEventType.fromCode(resultSet.getInt(3)),
+                    resultSet.getInt(4),
+                    resultSet.getTimestamp(5).toInstant());
+            apply(carsById.get(event.getCarId()), event);
+        });
+    }
+
+    /**
+     * Applies a single event to the state of the car, the same change the recorded operation made.
+     */
+    public static void apply(Car car, CarEvent event) {
+        Engine engine = car.getEngine();
+        FuelTank fuelTank = car.getFuelTank();
+        switch (event.getType()) {
+            case CAR_STARTED:
+                engine.setRunning(true);
+                engine.setStartCount(engine.getStartCount() + 1);
+                fuelTank.setFuelLevel(fuelTank.getFuelLevel() + event.getFuelDelta());
+                car.getDashboard().setCurrentMessage(MessageCollector.CAR_STARTED);
+                break;
+            case CAR_STOPPED:
+                engine.setRunning(false);
+                car.getDashboard().setCurrentMessage(MessageCollector.CAR_STOPPED);
+                break;
+            case REFUELED:
+                fuelTank.setFuelLevel(fuelTank.getFuelLevel() + event.getFuelDelta());
+                car.getDashboard().setCurrentMessage(MessageCollector.carRefueled(event.getFuelDelta(), fuelTank.getFuelLevel()));
+                break;
+            case ENGINE_FAILED:
+                break;
+        }
+        car.setEventSeq(event.getSeq());
+    }
+
+    private void write(List<CarEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_EVENT, events, batchSize, (statement, event) -> {
+            statement.setLong(1, event.getCarId());
+            statement.setLong(2, event.getSeq());
+            statement.setShort(3, (short) event.getType().getCode());
+            statement.setInt(4, event.getFuelDelta());
+            statement.setTimestamp(5, Timestamp.from(event.getRecordedAt()));
+        });
+    }
+}
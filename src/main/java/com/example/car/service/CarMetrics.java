@@ -0,0 +1,50 @@
+package com.example.car.service;
+
+import com.example.car.exceptions.CarNotFoundException;
+import com.example.car.exceptions.EngineFailureException;
+import com.example.car.exceptions.FuelEmptyException;
+import com.example.car.repository.CarRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business meters of the car operations.
+ * Failures are counted under {@code car.failures}, tagged with the exception, whether they reach the client
+ * or are reported inside a batch result. {@code car.engines.running} counts the running engines of the fleet
+ * with one indexed query each time it is read, in write-behind mode it lags by up to one flush interval.
+ */
+@Component
+public class CarMetrics {
+
+    private final Counter engineFailures;
+    private final Counter fuelEmpty;
+    private final Counter carsNotFound;
+
+    public CarMetrics(MeterRegistry meterRegistry, CarRepository carRepository) {
+        this.engineFailures = failureCounter(meterRegistry, EngineFailureException.class);
+        this.fuelEmpty = failureCounter(meterRegistry, FuelEmptyException.class);
+        this.carsNotFound = failureCounter(meterRegistry, CarNotFoundException.class);
+        Gauge.builder("car.engines.running", carRepository, CarRepository::countRunningEngines)
+                .register(meterRegistry);
+    }
+
+    public void engineFailure() {
+        engineFailures.increment();
+    }
+
+    public void fuelEmpty() {
+        fuelEmpty.increment();
+    }
+
+    public void carNotFound() {
+        carsNotFound.increment();
+    }
+
+    private static Counter failureCounter(MeterRegistry meterRegistry, Class<? extends RuntimeException> exception) {
+        return Counter.builder("car.failures")
+                .tag("exception", exception.getSimpleName())
+                .register(meterRegistry);
+    }
+}
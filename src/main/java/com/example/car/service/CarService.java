@@ -1,5 +1,18 @@
 package com.example.car.service;
 
+import com.example.car.dto.CarCommand;
+import com.example.car.dto.CarCommandResult;
+import com.example.car.dto.CarCommandType;
+import com.example.car.dto.CarEventType;
+import com.example.car.dto.CarPage;
+import com.example.car.dto.CarResponse;
+import com.example.car.dto.CarSummary;
+import com.example.car.dto.DashboardEvent;
+import com.example.car.dto.EngineStatusView;
+import com.example.car.dto.FleetTelemetry;
+import com.example.car.dto.FuelLevelChange;
+import com.example.car.dto.FuelLevelView;
+import com.example.car.dto.StartResult;
 import com.example.car.entity.Car;
 import com.example.car.entity.Dashboard;
 import com.example.car.entity.Engine;
@@ -9,139 +22,521 @@ import com.example.car.exceptions.EngineFailureException;
 import com.example.car.exceptions.FuelEmptyException;
 import com.example.car.messages.MessageCollector;
 import com.example.car.repository.CarRepository;
+import com.example.car.repository.EngineRepository;
+import com.example.car.repository.FuelTankRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class CarService {
 
     private static final Logger logger = LoggerFactory.getLogger(CarService.class);
+    // Timer of every public operation, tagged with the method name by the TimedAspect
+    private static final String OPERATION_TIMER = "car.service";
+    private static final int FUEL_PER_START = 5;
+    private static final int MAX_BULK_CARS = 100_000;
+    private static final int MAX_PAGE_SIZE = 1000;
     private final CarRepository carRepository;
+    private final FuelTankRepository fuelTankRepository;
+    private final EngineRepository engineRepository;
+    private final DashboardEventChannel dashboardEventChannel;
+    private final CarStatusCache carStatusCache;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final CarMetrics carMetrics;
+    private final EngineFailureModel engineFailureModel;
+    private final CarStateEventBus carStateEventBus;
+    private final FuelTelemetry fuelTelemetry;
+    private final Optional<CarStateStore> carStateStore;
+    private final Optional<CarCommandDispatcher> carCommandDispatcher;
 
+    @Timed(value = OPERATION_TIMER, histogram = true)
     @Transactional
     public Car createCar() {
-        Car car = new Car();
-        car.setEngine(new Engine());
-        car.setFuelTank(new FuelTank());
-        car.setDashboard(new Dashboard());
+        Car car = newCar();
         Car result= carRepository.saveAndFlush(car);
-        logger.info(MessageCollector.carCreated(car.getId()));
+        fuelTelemetry.carsCreated(1, car.getFuelTank().getFuelLevel());
+        logger.info(MessageCollector.CAR_CREATED_LOG, car.getId());
         return result;
     }
 
     /**
-     * Starts the car by checking engine and fuel tank availability.
-     * If conditions are met, the car starts, fuel is consumed, and status is displayed.
+     * Creates the given number of cars in one transaction and returns their ids.
+     * The ids come from pooled sequences, so the cars and their parts are inserted in JDBC batches
+     * instead of one INSERT with a generated key round-trip per row.
      */
+    @Timed(value = OPERATION_TIMER, histogram = true)
     @Transactional
-    public Car startCar(Long carId) throws EngineFailureException, FuelEmptyException {
-        Car car = getCarById(carId);
-
-        // Handle the business logic for starting the car
-        Engine engine = car.getEngine();
-        FuelTank fuelTank = car.getFuelTank();
-
-        if (!canStartEngine()) {
-            logger.error(MessageCollector.engineFailureDetails(carId, engine.getId()));
-            throw new EngineFailureException();
+    public List<Long> createCars(int count) {
+        if (count < 1 || count > MAX_BULK_CARS) {
+            throw new IllegalArgumentException(MessageCollector.invalidBulkCount(count, MAX_BULK_CARS));
         }
-
-        if (!hasSufficientFuel(fuelTank)) {
-            logger.error(MessageCollector.fuelFailureDetails(carId, fuelTank.getId(), fuelTank.getFuelLevel()));
-            throw new FuelEmptyException();
+        List<Car> cars = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cars.add(newCar());
         }
+        carRepository.persistAll(cars);
+        fuelTelemetry.carsCreated(count, cars.get(0).getFuelTank().getFuelLevel());
+        logger.info(MessageCollector.CARS_CREATED_LOG, count);
+        return cars.stream()
+                .map(Car::getId)
+                .collect(Collectors.toList());
+    }
 
-        // Mark engine as running and consume fuel
-        engine.setRunning(true);
-        fuelTank.setFuelLevel(fuelTank.getFuelLevel() - 5);  // Consumes 5 liters per start
+    /**
+     * Starts the car by checking engine and fuel tank availability.
+     * If conditions are met, the car starts, fuel is consumed, and status is displayed.
+     * A refusing engine, an empty tank and an unknown car are returned as the reason of the result, the transaction
+     * then commits without changes instead of rolling back.
+     * Like the other mutations it runs in its own transaction, which {@link OptimisticLockRetry} re-runs
+     * when a concurrent change of the same car is detected on commit.
+     * With the {@link CarCommandDispatcher} the mutations of one car run one after the other on its shard,
+     * so the retry is only needed for changes made elsewhere, by a batch or another node.
+     */
+    @Timed(value = OPERATION_TIMER, histogram = true)
+    public StartResult tryStartCar(Long carId) {
+        return dispatch(carId, () -> optimisticLockRetry.execute("start", () -> start(carId)));
+    }
 
-        Dashboard dashboard = car.getDashboard();
-        dashboard.setCurrentMessage(MessageCollector.CAR_STARTED);
-        dashboard.displayMessage();
-        logger.info(MessageCollector.carStarted(carId, fuelTank.getFuelLevel()));
-        return car;
+    /**
+     * Starts the car like {@link #tryStartCar}, but reports the failures as exceptions.
+     */
+    @Timed(value = OPERATION_TIMER, histogram = true)
+    public Car startCar(Long carId) throws EngineFailureException, FuelEmptyException {
+        return tryStartCar(carId).orElseThrow();
     }
 
     /**
      * Stops the car by turning off the engine.
      */
-    @Transactional
+    @Timed(value = OPERATION_TIMER, histogram = true)
     public Car stopCar(Long carId) {
-        Car car = getCarById(carId);
-
-        Engine engine = car.getEngine();
-        engine.setRunning(false);  // Stop the engine
-        Dashboard dashboard = car.getDashboard();
-        dashboard.setCurrentMessage(MessageCollector.CAR_STOPPED);
-        dashboard.displayMessage();
-        logger.info(MessageCollector.carStopped(carId, car.getFuelTank().getFuelLevel()));
-
-        return car;
+        return dispatch(carId, () -> optimisticLockRetry.execute("stop", () -> mutate(carId, carRepository::findWithPartsById, this::applyStop)));
     }
 
     /**
      * Refuels the car's fuel tank by adding a specified amount of fuel.
+     * The amount must be positive, a negative one would drain the tank past the empty check of a start.
      */
-    @Transactional
+    @Timed(value = OPERATION_TIMER, histogram = true)
     public Car refuelCar(Long carId, int amount) {
-        Car car = getCarById(carId);
+        checkRefuelAmount(amount);
+        return dispatch(carId, () -> optimisticLockRetry.execute("refuel", () -> mutate(carId, carRepository::findWithPartsById, car -> applyRefuel(car, amount, null))));
+    }
 
-        FuelTank fuelTank = car.getFuelTank();
-        fuelTank.setFuelLevel(fuelTank.getFuelLevel() + amount);  // Increase fuel level
-        Dashboard dashboard = car.getDashboard();
-        int currentFuelLevel = fuelTank.getFuelLevel();
-        dashboard.setCurrentMessage(MessageCollector.carRefueled(amount, currentFuelLevel));
-        dashboard.displayMessage();
-        logger.info(MessageCollector.carRefueledDetailed(carId, fuelTank.getId(), amount, currentFuelLevel));
-        return car;
+    /**
+     * Executes a list of start, stop and refuel commands in one transaction.
+     * The fuel tanks of the referenced cars are locked first, then all cars are loaded with a single query
+     * and the commands are applied in order in memory, against the current fuel levels.
+     * The fuel changes are summed per tank and sent as one JDBC batch of conditional UPDATEs, the start counts likewise,
+     * and the engine and dashboard updates are flushed together on commit.
+     * A failing command does not abort the batch, its failure is reported in its own result instead.
+     * A refuel command with an amount that is not positive rejects the whole batch before anything runs.
+     * If another request changes one of the cars before the commit, the whole batch is re-run on fresh state.
+     */
+    @Timed(value = OPERATION_TIMER, histogram = true)
+    public List<CarCommandResult> executeBatch(List<CarCommand> commands) {
+        commands.stream()
+                .filter(command -> command.getType() == CarCommandType.REFUEL)
+                .forEach(command -> checkRefuelAmount(command.getAmount()));
+        return optimisticLockRetry.execute("batch", () -> executeCommands(commands));
+    }
+
+    private List<CarCommandResult> executeCommands(List<CarCommand> commands) {
+        Set<Long> carIds = commands.stream()
+                .map(CarCommand::getCarId)
+                .collect(Collectors.toSet());
+        Map<Long, Car> cars = loadCars(carIds);
+        // The store applies the changes to its live copies, there is nothing to collect then
+        BatchUpdates batch = carStateStore.isEmpty() ? new BatchUpdates() : null;
+
+        List<CarCommandResult> results = new ArrayList<>(commands.size());
+        for (CarCommand command : commands) {
+            results.add(executeCommand(command, cars, batch));
+        }
+        if (batch != null) {
+            carRepository.changeFuelLevels(batch.fuelLevelChanges());
+            carRepository.countStarts(batch.startsByEngineId);
+        }
+        return results;
     }
 
     /**
      * Displays the current fuel level of the car.
+     * Read-only: only the fuel level columns are read and the dashboard message is published, nothing is written.
      */
-    @Transactional
+    @Timed(value = OPERATION_TIMER, histogram = true)
+    @Transactional(readOnly = true)
     public int checkFuelLevel(Long carId) {
-        Car car = getCarById(carId);
-        int fuelLevel = car.getFuelTank().getFuelLevel();
-        Dashboard dashboard = car.getDashboard();
-        dashboard.setCurrentMessage(MessageCollector.carFuelLevel(carId, fuelLevel));
-        dashboard.displayMessage();
-        logger.info(MessageCollector.carFuelLevelDetailed(carId, fuelLevel, car.getFuelTank().getId()));
+        FuelLevelView view = findFuelLevel(carId)
+                .orElseThrow(() -> carNotFound(carId));
+        int fuelLevel = view.getFuelLevel();
+        showOnDashboard(carId, MessageCollector.carFuelLevel(carId, fuelLevel));
+        if (logger.isInfoEnabled()) {
+            logger.info(MessageCollector.CAR_FUEL_LEVEL_LOG, carId, fuelLevel, view.getFuelTankId());
+        }
         return fuelLevel;
     }
 
-    @Transactional
+    /**
+     * Displays whether the engine of the car is running.
+     * Read-only: only the engine columns are read and the dashboard message is published, nothing is written.
+     */
+    @Timed(value = OPERATION_TIMER, histogram = true)
+    @Transactional(readOnly = true)
     public boolean checkIsEngineRunning(Long carId) {
-        Car car = getCarById(carId);
-        boolean isEngineRunning = car.getEngine().isRunning();
-        Dashboard dashboard = car.getDashboard();
-        dashboard.setCurrentMessage(isEngineRunning ? MessageCollector.ENGINE_IS_RUNNING : MessageCollector.ENGINE_IS_NOT_RUNNING);
-        dashboard.displayMessage();
-        logger.info(MessageCollector.isEngineRunning(carId, car.getEngine().getId(), isEngineRunning));
+        EngineStatusView view = findEngineStatus(carId)
+                .orElseThrow(() -> carNotFound(carId));
+        boolean isEngineRunning = view.isRunning();
+        showOnDashboard(carId, isEngineRunning ? MessageCollector.ENGINE_IS_RUNNING : MessageCollector.ENGINE_IS_NOT_RUNNING);
+        if (logger.isInfoEnabled()) {
+            logger.info(MessageCollector.ENGINE_STATUS_LOG, view.getEngineId(), carId,
+                    isEngineRunning ? MessageCollector.ENGINE_STATUS_RUNNING : MessageCollector.ENGINE_STATUS_NOT_RUNNING);
+        }
         return isEngineRunning;
     }
 
-    // Helper method to check if the engine can start
-    private boolean canStartEngine() {
-        return Math.random() <= 0.9;  // 90% chance the engine will start successfully
+    /**
+     * Returns the current state of the car, or empty if the car does not exist.
+     * Read-only: unlike the checks it publishes nothing to the dashboard, it is the starting point of a change stream.
+     */
+    @Timed(value = OPERATION_TIMER, histogram = true)
+    @Transactional(readOnly = true)
+    public Optional<CarResponse> findCarState(Long carId) {
+        if (carStateStore.isPresent()) {
+            return carStateStore.get().read(carId, CarResponse::from);
+        }
+        return carRepository.findWithPartsById(carId).map(CarResponse::from);
+    }
+
+    /**
+     * Lists the cars after the given id, optionally filtered by engine state and a fuel level upper bound.
+     * Keyset pagination: pass the {@code nextAfterId} of a page to get the next one.
+     * Reads the database, in write-behind mode changes that have not been flushed yet are not visible.
+     */
+    @Timed(value = OPERATION_TIMER, histogram = true)
+    @Transactional(readOnly = true)
+    public CarPage listCars(Long afterId, int limit, Boolean running, Integer fuelBelow) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(MessageCollector.invalidPageSize(limit, MAX_PAGE_SIZE));
+        }
+        List<CarSummary> cars = carRepository.findSummariesAfter(afterId, running, fuelBelow, PageRequest.of(0, limit));
+        Long nextAfterId = cars.size() < limit ? null : cars.get(cars.size() - 1).getCarId();
+        return new CarPage(cars, nextAfterId);
+    }
+
+    /**
+     * Returns the starts, failed starts and refuels of the last {@code windowSeconds} seconds on this node
+     * and the fuel level histogram of the fleet, answered from memory without touching the database.
+     */
+    @Timed(value = OPERATION_TIMER, histogram = true)
+    public FleetTelemetry getFleetTelemetry(int windowSeconds) {
+        return fuelTelemetry.snapshot(windowSeconds);
+    }
+
+    /**
+     * Hands every car of the fleet to the consumer in id order, reading them through a database cursor.
+     */
+    @Timed(value = OPERATION_TIMER, histogram = true)
+    @Transactional(readOnly = true)
+    public void exportCars(Consumer<CarSummary> consumer) {
+        try (Stream<CarSummary> cars = carRepository.streamAllSummaries()) {
+            cars.forEach(consumer);
+        }
+    }
+
+    private CarCommandResult executeCommand(CarCommand command, Map<Long, Car> cars, BatchUpdates batch) {
+        try {
+            Car car = mutate(command.getCarId(), carId -> Optional.ofNullable(cars.get(carId)), loadedCar -> applyCommand(command, loadedCar, batch));
+            return CarCommandResult.success(command, car);
+        } catch (CarNotFoundException | EngineFailureException | FuelEmptyException e) {
+            return CarCommandResult.failure(command, e);
+        }
+    }
+
+    private void applyCommand(CarCommand command, Car car, BatchUpdates batch) {
+        switch (command.getType()) {
+            case START:
+                StartResult.Reason reason = applyStart(car, batch);
+                if (reason != StartResult.Reason.OK) {
+                    throw reason.toException();
+                }
+                break;
+            case STOP:
+                applyStop(car);
+                break;
+            case REFUEL:
+                applyRefuel(car, command.getAmount(), batch);
+                break;
+        }
+    }
+
+    private static void checkRefuelAmount(int amount) {
+        if (amount < 1) {
+            throw new IllegalArgumentException(MessageCollector.invalidRefuelAmount(amount));
+        }
+    }
+
+    // Runs the mutation on the shard of the car when the dispatcher is enabled, otherwise on the calling thread
+    private <T> T dispatch(Long carId, Supplier<T> mutation) {
+        if (carCommandDispatcher.isEmpty()) {
+            return mutation.get();
+        }
+        return carCommandDispatcher.get().execute(carId, mutation);
+    }
+
+    /**
+     * Applies the operation to the live state of the car.
+     * In write-behind and event-sourced mode that is the copy held by the {@link CarStateStore}, otherwise the managed entity
+     * returned by the loader, which is written back when the surrounding transaction commits
+     * and dropped from the {@link CarStatusCache} afterwards.
+     * Returns empty if the car does not exist.
+     */
+    private Optional<Car> tryMutate(Long carId, Function<Long, Optional<Car>> loader, Consumer<Car> operation) {
+        if (carStateStore.isPresent()) {
+            return carStateStore.get().mutate(carId, operation);
+        }
+        Optional<Car> car = loader.apply(carId);
+        car.ifPresent(loadedCar -> {
+            operation.accept(loadedCar);
+            carStatusCache.invalidate(carId);
+        });
+        return car;
+    }
+
+    private Car mutate(Long carId, Function<Long, Optional<Car>> loader, Consumer<Car> operation) {
+        return tryMutate(carId, loader, operation)
+                .orElseThrow(() -> carNotFound(carId));
+    }
+
+    private StartResult start(Long carId) {
+        StartResult.Reason[] reason = new StartResult.Reason[1];
+        Optional<Car> car = tryMutate(carId, carRepository::findWithPartsById, loadedCar -> reason[0] = applyStart(loadedCar, null));
+        if (car.isEmpty()) {
+            reportCarNotFound(carId);
+            return StartResult.failed(StartResult.Reason.NOT_FOUND);
+        }
+        return reason[0] == StartResult.Reason.OK ? StartResult.started(car.get()) : StartResult.failed(reason[0]);
+    }
+
+    // In write-behind mode the cars are preloaded into the store instead of the persistence context
+    private Map<Long, Car> loadCars(Set<Long> carIds) {
+        if (carStateStore.isPresent()) {
+            carStateStore.get().preload(carIds);
+            return Collections.emptyMap();
+        }
+        carRepository.lockFuelTanks(carIds);
+        return carRepository.findAllWithPartsByIdIn(carIds).stream()
+                .collect(Collectors.toMap(Car::getId, Function.identity()));
+    }
+
+    private Optional<FuelLevelView> findFuelLevel(Long carId) {
+        if (carStateStore.isPresent()) {
+            return carStateStore.get().read(carId, car -> new FuelLevelView(
+                    car.getFuelTank().getId(), car.getFuelTank().getFuelLevel()));
+        }
+        return carStatusCache.getFuelLevel(carId, carRepository::findFuelLevelById);
+    }
+
+    private Optional<EngineStatusView> findEngineStatus(Long carId) {
+        if (carStateStore.isPresent()) {
+            return carStateStore.get().read(carId, car -> new EngineStatusView(
+                    car.getEngine().getId(), car.getEngine().isRunning()));
+        }
+        return carStatusCache.getEngineStatus(carId, carRepository::findEngineStatusById);
+    }
+
+    // The batch collects the fuel and start count changes of a batch, outside of batches it is null
+    private StartResult.Reason applyStart(Car car, BatchUpdates batch) {
+        Long carId = car.getId();
+        Engine engine = car.getEngine();
+        FuelTank fuelTank = car.getFuelTank();
+
+        if (!engineFailureModel.canStart(engine)) {
+            logger.error(MessageCollector.ENGINE_FAILURE_LOG, engine.getId(), carId);
+            carMetrics.engineFailure();
+            fuelTelemetry.startFailed();
+            recordEvent(car, CarEventType.ENGINE_FAILED, 0);
+            return StartResult.Reason.ENGINE_FAILURE;
+        }
+
+        if (!consumeFuel(fuelTank, FUEL_PER_START, batch)) {
+            logger.error(MessageCollector.FUEL_FAILURE_LOG, fuelTank.getId(), carId, fuelTank.getFuelLevel());
+            carMetrics.fuelEmpty();
+            fuelTelemetry.startFailed();
+            return StartResult.Reason.NO_FUEL;
+        }
+
+        // Mark engine as running, the fuel has already been consumed
+        engine.setRunning(true);
+        countStart(engine, batch);
+        recordEvent(car, CarEventType.CAR_STARTED, -FUEL_PER_START);
+        fuelTelemetry.started(fuelTank.getFuelLevel() + FUEL_PER_START, fuelTank.getFuelLevel());
+
+        car.getDashboard().setCurrentMessage(MessageCollector.CAR_STARTED);
+        showOnDashboard(carId, MessageCollector.CAR_STARTED);
+        publishState(car);
+        if (logger.isInfoEnabled()) {
+            logger.info(MessageCollector.CAR_STARTED_LOG, carId, fuelTank.getFuelLevel());
+        }
+        return StartResult.Reason.OK;
+    }
+
+    private void applyStop(Car car) {
+        Engine engine = car.getEngine();
+        engine.setRunning(false);  // Stop the engine
+        recordEvent(car, CarEventType.CAR_STOPPED, 0);
+        car.getDashboard().setCurrentMessage(MessageCollector.CAR_STOPPED);
+        showOnDashboard(car.getId(), MessageCollector.CAR_STOPPED);
+        publishState(car);
+        if (logger.isInfoEnabled()) {
+            logger.info(MessageCollector.CAR_STOPPED_LOG, car.getId(), car.getFuelTank().getFuelLevel());
+        }
+    }
+
+    private void applyRefuel(Car car, int amount, BatchUpdates batch) {
+        FuelTank fuelTank = car.getFuelTank();
+        addFuel(car, amount, batch);
+        recordEvent(car, CarEventType.REFUELED, amount);
+        int currentFuelLevel = fuelTank.getFuelLevel();
+        fuelTelemetry.refueled(amount, currentFuelLevel - amount, currentFuelLevel);
+        String message = MessageCollector.carRefueled(amount, currentFuelLevel);
+        car.getDashboard().setCurrentMessage(message);
+        showOnDashboard(car.getId(), message);
+        publishState(car);
+        if (logger.isInfoEnabled()) {
+            logger.info(MessageCollector.CAR_REFUELED_LOG, fuelTank.getId(), car.getId(), amount, currentFuelLevel);
+        }
+    }
+
+    /**
+     * Takes the amount from the tank, or returns false if not enough fuel is left.
+     * In write-behind mode the store lock already serializes the changes of the car, so the live copy is changed directly.
+     * In a batch the tank was locked before it was loaded, it is checked in memory and the change is collected.
+     * Otherwise the check and the change happen in one conditional UPDATE. The loaded tank may be stale, so the level
+     * is read back while the UPDATE's row lock is held, and the returned car and everything published from it
+     * show the level this change left.
+     */
+    private boolean consumeFuel(FuelTank fuelTank, int amount, BatchUpdates batch) {
+        if (carStateStore.isEmpty() && batch == null) {
+            if (fuelTankRepository.consumeFuel(fuelTank.getId(), amount) == 0) {
+                return false;
+            }
+            fuelTank.setFuelLevel(fuelTankRepository.findFuelLevelById(fuelTank.getId()));
+            return true;
+        }
+        if (fuelTank.getFuelLevel() < amount) {
+            return false;
+        }
+        if (batch != null) {
+            batch.fuelChanged(fuelTank.getId(), -amount);
+        }
+        fuelTank.setFuelLevel(fuelTank.getFuelLevel() - amount);
+        return true;
+    }
+
+    // Adds the amount to the tank, with a single UPDATE unless the store owns the live state or a batch collects it
+    private void addFuel(Car car, int amount, BatchUpdates batch) {
+        FuelTank fuelTank = car.getFuelTank();
+        if (carStateStore.isEmpty() && batch == null) {
+            if (fuelTankRepository.addFuel(fuelTank.getId(), amount) == 0) {
+                throw carNotFound(car.getId());
+            }
+            fuelTank.setFuelLevel(fuelTankRepository.findFuelLevelById(fuelTank.getId()));
+            return;
+        }
+        if (batch != null) {
+            batch.fuelChanged(fuelTank.getId(), amount);
+        }
+        fuelTank.setFuelLevel(fuelTank.getFuelLevel() + amount);
+    }
+
+    // Counts the start with a single UPDATE unless the store owns the live state or a batch collects it
+    private void countStart(Engine engine, BatchUpdates batch) {
+        if (batch != null) {
+            batch.started(engine.getId());
+        } else if (carStateStore.isEmpty()) {
+            engineRepository.countStart(engine.getId());
+        }
+        engine.setStartCount(engine.getStartCount() + 1);
     }
 
-    // Helper method to check if there is sufficient fuel
-    private boolean hasSufficientFuel(FuelTank fuelTank) {
-        return fuelTank.getFuelLevel() >= 5;  // Minimum 5 liters of fuel required to start the car
+    // Journals the operation in event-sourced mode, the other modes keep no history
+    private void recordEvent(Car car, CarEventType type, int fuelDelta) {
+        carStateStore.ifPresent(store -> store.record(car, type, fuelDelta));
     }
 
-    protected Car getCarById(Long carId) {
+    // Hands the message to the dashboard subscribers once the change has committed, without waiting for them
+    private void showOnDashboard(Long carId, String message) {
+        dashboardEventChannel.publish(new DashboardEvent(carId, message));
+    }
 
-        return carRepository.findById(carId)
-                .orElseThrow(() -> {
-                    logger.error(MessageCollector.carNotFoundDetailed(carId));
-                    throw new CarNotFoundException();
-                });
+    // Streams the new state to the subscribers of the car once the change has committed
+    private void publishState(Car car) {
+        carStateEventBus.publish(CarResponse.from(car));
+    }
+
+    private CarNotFoundException carNotFound(Long carId) {
+        reportCarNotFound(carId);
+        return new CarNotFoundException();
+    }
+
+    private void reportCarNotFound(Long carId) {
+        logger.error(MessageCollector.CAR_NOT_FOUND_LOG, carId);
+        carMetrics.carNotFound();
+    }
+
+    private static Car newCar() {
+        Car car = new Car();
+        car.setEngine(new Engine());
+        car.setFuelTank(new FuelTank());
+        car.setDashboard(new Dashboard());
+        return car;
+    }
+
+    /**
+     * Fuel and start count changes of a batch, summed per tank and engine.
+     * For every tank it also keeps the lowest point its level reached relative to the loaded level,
+     * the tank must hold at least that much more for the batch's starts not to overdraw it.
+     */
+    private static final class BatchUpdates {
+
+        // Per tank id: the summed change and the lowest running sum
+        private final Map<Long, int[]> fuelChanges = new LinkedHashMap<>();
+        private final Map<Long, Integer> startsByEngineId = new LinkedHashMap<>();
+
+        void fuelChanged(Long fuelTankId, int amount) {
+            int[] change = fuelChanges.computeIfAbsent(fuelTankId, id -> new int[2]);
+            change[0] += amount;
+            change[1] = Math.min(change[1], change[0]);
+        }
+
+        void started(Long engineId) {
+            startsByEngineId.merge(engineId, 1, Integer::sum);
+        }
+
+        List<FuelLevelChange> fuelLevelChanges() {
+            List<FuelLevelChange> changes = new ArrayList<>(fuelChanges.size());
+            fuelChanges.forEach((fuelTankId, change) -> changes.add(new FuelLevelChange(fuelTankId, change[0], -change[1])));
+            return changes;
+        }
     }
-}
\ No newline at end of file
+}
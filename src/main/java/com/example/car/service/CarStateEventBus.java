@@ -0,0 +1,273 @@
+package com.example.car.service;
+
+import com.example.car.dto.CarResponse;
+import com.example.car.messages.MessageCollector;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-process fan-out of car state changes to subscribers of a single car or of the whole fleet.
+ * <p>
+ * A subscriber is an entry in an index and an empty buffer until a change arrives, it holds no thread.
+ * Publishing only puts the change into the buffers of the matching subscribers, a small pool of sender threads
+ * then hands the buffered changes to each subscriber in order. Buffers are bounded: with coalescing, a change
+ * replaces the pending change of the same car, as every change carries the full state of the car. A buffer that is
+ * still full drops its oldest or the new change, depending on the overflow policy. Neither ever blocks the publisher.
+ * <p>
+ * Every change is numbered when it is published, inside the transaction that made it. Changes of one car are
+ * serialized by the row locks and version checks of that transaction, so the numbers follow the order of the changes,
+ * but their commits can run their callbacks in any order. A change numbered before the last one handed to the
+ * subscribers of its car is dropped as outdated, it would otherwise replace the newer state in their buffers.
+ * <p>
+ * Subscribers, dropped, coalesced and outdated changes are published as {@code car.events.*} metrics.
+ */
+@Component
+public class CarStateEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarStateEventBus.class);
+
+    /**
+     * What a full subscriber buffer does with a change for a car that has nothing pending yet.
+     */
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DROP_NEWEST
+    }
+
+    private final Map<Long, Set<Subscription>> carSubscriptions = new ConcurrentHashMap<>();
+    private final Set<Subscription> fleetSubscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    // Number of the last change handed to the subscribers, only kept for cars that have subscribers
+    private final Map<Long, Long> deliveredSequences = new ConcurrentHashMap<>();
+    private final int bufferCapacity;
+    private final boolean coalesce;
+    private final OverflowPolicy overflowPolicy;
+    private final Counter droppedChanges;
+    private final Counter coalescedChanges;
+    private final Counter outdatedChanges;
+    private final ExecutorService senders;
+
+    public CarStateEventBus(MeterRegistry meterRegistry,
+                            @Value("${car.events.sender-threads:2}") int senderThreads,
+                            @Value("${car.events.buffer-capacity:256}") int bufferCapacity,
+                            @Value("${car.events.coalesce:true}") boolean coalesce,
+                            @Value("${car.events.overflow:drop-oldest}") OverflowPolicy overflowPolicy) {
+        this.bufferCapacity = bufferCapacity;
+        this.coalesce = coalesce;
+        this.overflowPolicy = overflowPolicy;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "car-event-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("car.events.subscribers", subscriberCount, AtomicInteger::get)
+                .register(meterRegistry);
+        this.droppedChanges = Counter.builder("car.events.dropped")
+                .register(meterRegistry);
+        this.coalescedChanges = Counter.builder("car.events.coalesced")
+                .register(meterRegistry);
+        this.outdatedChanges = Counter.builder("car.events.outdated")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stopSenders() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * Subscribes to the changes of one car, or of every car when the car id is null.
+     * The consumer is called on a sender thread, one change at a time. If it throws, the subscription is cancelled.
+     */
+    public Subscription subscribe(Long carId, Consumer<CarResponse> consumer) {
+        Subscription subscription = new Subscription(carId, consumer);
+        if (carId == null) {
+            fleetSubscriptions.add(subscription);
+        } else {
+            carSubscriptions.compute(carId, (id, subscriptions) -> {
+                Set<Subscription> result = subscriptions != null ? subscriptions : ConcurrentHashMap.newKeySet();
+                result.add(subscription);
+                return result;
+            });
+        }
+        subscriberCount.incrementAndGet();
+        return subscription;
+    }
+
+    /**
+     * Hands the new state of a car to its subscribers once the current transaction has committed,
+     * or right away when there is no transaction. A rolled back change is never published.
+     * Must be called after the change has taken its locks, the number it gets orders it against the other changes.
+     */
+    public void publish(CarResponse state) {
+        long number = sequence.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(state, number);
+                }
+            });
+        } else {
+            deliver(state, number);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    // Offers the change while holding the entry of its car, so a newer change of the car cannot be offered in between
+    private void deliver(CarResponse state, long number) {
+        deliveredSequences.compute(state.getCarId(), (carId, delivered) -> {
+            if (delivered != null && delivered > number) {
+                outdatedChanges.increment();
+                return delivered;
+            }
+            Set<Subscription> subscriptions = carSubscriptions.get(carId);
+            if (subscriptions == null && fleetSubscriptions.isEmpty()) {
+                return null;
+            }
+            if (subscriptions != null) {
+                subscriptions.forEach(subscription -> subscription.offer(state, false));
+            }
+            fleetSubscriptions.forEach(subscription -> subscription.offer(state, false));
+            return number;
+        });
+    }
+
+    private void remove(Subscription subscription) {
+        boolean removed;
+        if (subscription.carId == null) {
+            removed = fleetSubscriptions.remove(subscription);
+        } else {
+            boolean[] found = new boolean[1];
+            carSubscriptions.computeIfPresent(subscription.carId, (id, subscriptions) -> {
+                found[0] = subscriptions.remove(subscription);
+                return subscriptions.isEmpty() ? null : subscriptions;
+            });
+            removed = found[0];
+        }
+        if (removed) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * A subscriber of the bus with its buffer of pending changes.
+     */
+    public final class Subscription {
+
+        private final Long carId;
+        private final Consumer<CarResponse> consumer;
+        // Keyed by car id when coalescing, otherwise by arrival, in both cases ordered by arrival
+        private final LinkedHashMap<Object, CarResponse> pending = new LinkedHashMap<>();
+        private long arrivals;
+        // A change arrived since subscribing, whether it is still pending, already sent or dropped
+        private boolean changed;
+        private boolean scheduled;
+        private volatile boolean cancelled;
+
+        private Subscription(Long carId, Consumer<CarResponse> consumer) {
+            this.carId = carId;
+            this.consumer = consumer;
+        }
+
+        /**
+         * Queues the current state of the car, read when the subscription started, unless a change of the car has
+         * arrived since. That change may already have been sent, and the state read before it must not follow it.
+         */
+        public void offerInitial(CarResponse state) {
+            offer(state, true);
+        }
+
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                pending.clear();
+            }
+            remove(this);
+        }
+
+        private void offer(CarResponse state, boolean initial) {
+            synchronized (this) {
+                if (cancelled || initial && changed) {
+                    return;
+                }
+                changed |= !initial;
+                Object key = coalesce ? state.getCarId() : (Object) arrivals++;
+                if (pending.containsKey(key)) {
+                    // Replaces the value but keeps its place in the order
+                    pending.put(key, state);
+                    coalescedChanges.increment();
+                } else {
+                    if (pending.size() >= bufferCapacity) {
+                        droppedChanges.increment();
+                        if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                            return;
+                        }
+                        Iterator<CarResponse> oldest = pending.values().iterator();
+                        oldest.next();
+                        oldest.remove();
+                    }
+                    pending.put(key, state);
+                }
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            try {
+                senders.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                // shutting down, nothing will be sent anymore
+                cancel();
+            }
+        }
+
+        // Sends until the buffer is empty, a change arriving meanwhile is picked up by the same run
+        private void send() {
+            while (true) {
+                CarResponse state;
+                synchronized (this) {
+                    Iterator<CarResponse> next = pending.values().iterator();
+                    if (cancelled || !next.hasNext()) {
+                        scheduled = false;
+                        return;
+                    }
+                    state = next.next();
+                    next.remove();
+                }
+                try {
+                    consumer.accept(state);
+                } catch (RuntimeException e) {
+                    logger.debug(MessageCollector.CAR_EVENT_SUBSCRIBER_GONE_LOG, carId, e);
+                    cancel();
+                    return;
+                }
+            }
+        }
+    }
+}
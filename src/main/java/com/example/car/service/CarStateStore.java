@@ -0,0 +1,316 @@
+package com.example.car.service;
+
+import com.example.car.config.ReadOnlyRoutingDataSource;
+import com.example.car.dto.CarEvent;
+import com.example.car.dto.CarEventType;
+import com.example.car.entity.Car;
+import com.example.car.entity.Dashboard;
+import com.example.car.entity.Engine;
+import com.example.car.entity.FuelTank;
+import com.example.car.messages.MessageCollector;
+import com.example.car.repository.CarRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory owner of the live car state when write-behind mode is enabled.
+ * Reads and mutations are served from detached copies of the cars, guarded by striped locks keyed on the car id.
+ * Mutated cars are marked dirty and a background flusher writes them to the database in JDBC batches,
+ * so several changes of the same car between two flushes end up in a single UPDATE.
+ * Changes that have not been flushed yet are lost on a crash, at most one flush interval worth of them.
+ * <p>
+ * In event-sourced mode the store also owns the live state, the operations are recorded in the
+ * {@link CarEventJournal} and the flushed rows are the snapshots the cars are rebuilt from, together with
+ * the events recorded after them.
+ * <p>
+ * Cars are loaded from the primary even inside the read-only transactions of the checks. A lagging replica would
+ * hand out old rows as live state, and the next flush would write them over newer changes.
+ */
+@Component
+@ConditionalOnExpression("${car.write-behind.enabled:false} or ${car.event-sourcing.enabled:false}")
+public class CarStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarStateStore.class);
+
+    private static final String UPDATE_ENGINE = "update engine set running = ?, start_count = ?, version = version + 1 where id = ?";
+    private static final String UPDATE_FUEL_TANK = "update fuel_tank set fuel_level = ?, version = version + 1 where id = ?";
+    private static final String UPDATE_DASHBOARD = "update dashboard set current_message = ?, version = version + 1 where id = ?";
+    private static final String UPDATE_CAR_EVENT_SEQ = "update car set event_seq = ? where id = ?";
+
+    private final CarRepository carRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Optional<CarEventJournal> carEventJournal;
+    private final long flushIntervalMillis;
+    private final int batchSize;
+    private final int maxCars;
+
+    private final Map<Long, Car> cars = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyCarIds = ConcurrentHashMap.newKeySet();
+    private final Lock[] stripes;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "car-state-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CarStateStore(CarRepository carRepository,
+                         JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         Optional<CarEventJournal> carEventJournal,
+                         @Value("${car.write-behind.flush-interval-ms:500}") long flushIntervalMillis,
+                         @Value("${car.write-behind.batch-size:500}") int batchSize,
+                         @Value("${car.write-behind.max-cars:100000}") int maxCars,
+                         @Value("${car.write-behind.lock-stripes:256}") int lockStripes) {
+        this.carRepository = carRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.carEventJournal = carEventJournal;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.batchSize = batchSize;
+        this.maxCars = maxCars;
+        this.stripes = new Lock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    void startFlusher() {
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(flushIntervalMillis * 2, TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    /**
+     * Applies the operation to the live state of the car and marks it for the next flush.
+     * Returns a copy of the car taken right after the operation, or empty if the car does not exist.
+     */
+    public Optional<Car> mutate(Long carId, Consumer<Car> operation) {
+        Lock lock = lockFor(carId);
+        lock.lock();
+        try {
+            Car car = load(carId);
+            if (car == null) {
+                return Optional.empty();
+            }
+            operation.accept(car);
+            dirtyCarIds.add(carId);
+            return Optional.of(copyOf(car));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the event of an operation on the live state of the car to the journal, a no-op without one.
+     * Must be called from the operation passed to {@link #mutate}, which holds the lock of the car.
+     * The car is marked dirty even if the operation fails afterwards, so its sequence number reaches the next snapshot.
+     */
+    public void record(Car car, CarEventType type, int fuelDelta) {
+        if (carEventJournal.isEmpty()) {
+            return;
+        }
+        car.setEventSeq(car.getEventSeq() + 1);
+        carEventJournal.get().append(new CarEvent(car.getId(), car.getEventSeq(), type, fuelDelta, Instant.now()));
+        dirtyCarIds.add(car.getId());
+    }
+
+    /**
+     * Reads from the live state of the car, or returns empty if the car does not exist.
+     */
+    public <T> Optional<T> read(Long carId, Function<Car, T> reader) {
+        Lock lock = lockFor(carId);
+        lock.lock();
+        try {
+            return Optional.ofNullable(load(carId)).map(reader);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads every car of the collection that is not held yet with a single query.
+     */
+    public void preload(Collection<Long> carIds) {
+        List<Long> missingIds = new ArrayList<>();
+        for (Long carId : carIds) {
+            if (!cars.containsKey(carId)) {
+                missingIds.add(carId);
+            }
+        }
+        if (missingIds.isEmpty()) {
+            return;
+        }
+        List<Car> loadedCars = ReadOnlyRoutingDataSource.readFromPrimary(() -> {
+            List<Car> copies = new ArrayList<>();
+            for (Car car : carRepository.findAllWithPartsByIdIn(missingIds)) {
+                copies.add(copyOf(car));
+            }
+            replayJournal(copies);
+            return copies;
+        });
+        for (Car car : loadedCars) {
+            cars.putIfAbsent(car.getId(), car);
+        }
+    }
+
+    /**
+     * Writes every dirty car to the database in one transaction.
+     * If the write fails the cars stay dirty and are retried on the next flush.
+     * In event-sourced mode the journal is flushed first, so a snapshot never covers events that are not written.
+     */
+    public synchronized void flush() {
+        List<Car> snapshots = new ArrayList<>();
+        for (Iterator<Long> iterator = dirtyCarIds.iterator(); iterator.hasNext(); ) {
+            Long carId = iterator.next();
+            Lock lock = lockFor(carId);
+            lock.lock();
+            try {
+                iterator.remove();
+                snapshots.add(copyOf(cars.get(carId)));
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        if (carEventJournal.isPresent() && !carEventJournal.get().flush()) {
+            snapshots.forEach(car -> dirtyCarIds.add(car.getId()));
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(snapshots));
+            logger.debug(MessageCollector.CARS_FLUSHED_LOG, snapshots.size());
+        } catch (RuntimeException e) {
+            logger.error(MessageCollector.CARS_FLUSH_FAILED_LOG, snapshots.size(), e);
+            snapshots.forEach(car -> dirtyCarIds.add(car.getId()));
+            return;
+        }
+        evictCleanCars();
+    }
+
+    private void write(List<Car> snapshots) {
+        jdbcTemplate.batchUpdate(UPDATE_ENGINE, snapshots, batchSize, (statement, car) -> {
+            statement.setBoolean(1, car.getEngine().isRunning());
+            statement.setLong(2, car.getEngine().getStartCount());
+            statement.setLong(3, car.getEngine().getId());
+        });
+        jdbcTemplate.batchUpdate(UPDATE_FUEL_TANK, snapshots, batchSize, (statement, car) -> {
+            statement.setInt(1, car.getFuelTank().getFuelLevel());
+            statement.setLong(2, car.getFuelTank().getId());
+        });
+        jdbcTemplate.batchUpdate(UPDATE_DASHBOARD, snapshots, batchSize, (statement, car) -> {
+            statement.setString(1, car.getDashboard().getCurrentMessage());
+            statement.setLong(2, car.getDashboard().getId());
+        });
+        if (carEventJournal.isPresent()) {
+            jdbcTemplate.batchUpdate(UPDATE_CAR_EVENT_SEQ, snapshots, batchSize, (statement, car) -> {
+                statement.setLong(1, car.getEventSeq());
+                statement.setLong(2, car.getId());
+            });
+        }
+    }
+
+    // Drops flushed cars once the store grows beyond its limit, they are reloaded from the database on next access
+    private void evictCleanCars() {
+        Iterator<Long> iterator = cars.keySet().iterator();
+        while (cars.size() > maxCars && iterator.hasNext()) {
+            Long carId = iterator.next();
+            Lock lock = lockFor(carId);
+            lock.lock();
+            try {
+                if (!dirtyCarIds.contains(carId)) {
+                    iterator.remove();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Must be called while holding the lock of the car
+    private Car load(Long carId) {
+        Car car = cars.get(carId);
+        if (car == null) {
+            car = ReadOnlyRoutingDataSource.readFromPrimary(() -> {
+                Car loadedCar = carRepository.findWithPartsById(carId)
+                        .map(CarStateStore::copyOf)
+                        .orElse(null);
+                if (loadedCar != null) {
+                    replayJournal(Collections.singletonList(loadedCar));
+                }
+                return loadedCar;
+            });
+            if (car != null) {
+                cars.put(carId, car);
+            }
+        }
+        return car;
+    }
+
+    // Brings freshly loaded snapshots up to date with the journal, cars are only evicted once their events are written
+    private void replayJournal(List<Car> loadedCars) {
+        carEventJournal.ifPresent(journal -> journal.replay(loadedCars));
+    }
+
+    private Lock lockFor(Long carId) {
+        return stripes[Math.floorMod(carId.hashCode(), stripes.length)];
+    }
+
+    // Detached copy, so the live state is never attached to a persistence context or shared outside a lock
+    private static Car copyOf(Car source) {
+        Engine engine = new Engine();
+        engine.setId(source.getEngine().getId());
+        engine.setRunning(source.getEngine().isRunning());
+        engine.setStartCount(source.getEngine().getStartCount());
+
+        FuelTank fuelTank = new FuelTank();
+        fuelTank.setId(source.getFuelTank().getId());
+        fuelTank.setFuelLevel(source.getFuelTank().getFuelLevel());
+
+        Dashboard dashboard = new Dashboard();
+        dashboard.setId(source.getDashboard().getId());
+        dashboard.setCurrentMessage(source.getDashboard().getCurrentMessage());
+
+        Car car = new Car();
+        car.setId(source.getId());
+        car.setEngine(engine);
+        car.setFuelTank(fuelTank);
+        car.setDashboard(dashboard);
+        car.setEventSeq(source.getEventSeq());
+        return car;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.car.service;
+
+import com.example.car.config.ReadOnlyRoutingDataSource;
+import com.example.car.dto.EngineStatusView;
+import com.example.car.dto.FuelLevelView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache for the fuel level and engine status queries.
+ * Entries expire after a fixed time and the least used ones are evicted when the size limit is reached.
+ * Hit and miss counts are published as {@code cache.gets} metrics.
+ * <p>
+ * Writers invalidate a car once their transaction has completed. A load that was already running is allowed
+ * to finish first and is then discarded, so a read after a write on this node never sees the old value.
+ * Writes done by other nodes become visible at the latest when the entry expires.
+ * Misses are loaded from the primary, as a lagging replica would keep the old value cached for the whole TTL.
+ */
+@Component
+public class CarStatusCache {
+
+    private final boolean enabled;
+    private final Cache<Long, FuelLevelView> fuelLevels;
+    private final Cache<Long, EngineStatusView> engineStatuses;
+
+    public CarStatusCache(MeterRegistry meterRegistry,
+                          @Value("${car.status-cache.enabled:true}") boolean enabled,
+                          @Value("${car.status-cache.maximum-size:10000}") long maximumSize,
+                          @Value("${car.status-cache.ttl-ms:10000}") long ttlMillis) {
+        this.enabled = enabled;
+        this.fuelLevels = newCache(maximumSize, ttlMillis);
+        this.engineStatuses = newCache(maximumSize, ttlMillis);
+        CaffeineCacheMetrics.monitor(meterRegistry, fuelLevels, "carFuelLevels");
+        CaffeineCacheMetrics.monitor(meterRegistry, engineStatuses, "carEngineStatuses");
+    }
+
+    public Optional<FuelLevelView> getFuelLevel(Long carId, Function<Long, Optional<FuelLevelView>> loader) {
+        if (!enabled) {
+            return loader.apply(carId);
+        }
+        // Missing cars are not cached, so a car created later is found right away
+        return Optional.ofNullable(fuelLevels.get(carId, id -> load(id, loader)));
+    }
+
+    public Optional<EngineStatusView> getEngineStatus(Long carId, Function<Long, Optional<EngineStatusView>> loader) {
+        if (!enabled) {
+            return loader.apply(carId);
+        }
+        return Optional.ofNullable(engineStatuses.get(carId, id -> load(id, loader)));
+    }
+
+    /**
+     * Drops the cached state of the car once the current transaction has completed,
+     * or right away when there is no transaction.
+     */
+    public void invalidate(Long carId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(carId);
+                }
+            });
+        } else {
+            evict(carId);
+        }
+    }
+
+    /**
+     * Drops every cached fuel level right away, for changes that span the whole fleet.
+     */
+    public void invalidateFuelLevels() {
+        fuelLevels.invalidateAll();
+    }
+
+    public void invalidateAll() {
+        fuelLevels.invalidateAll();
+        engineStatuses.invalidateAll();
+    }
+
+    private static <V> V load(Long carId, Function<Long, Optional<V>> loader) {
+        return ReadOnlyRoutingDataSource.readFromPrimary(() -> loader.apply(carId).orElse(null));
+    }
+
+    private void evict(Long carId) {
+        fuelLevels.invalidate(carId);
+        engineStatuses.invalidate(carId);
+    }
+
+    private static <V> Cache<Long, V> newCache(long maximumSize, long ttlMillis) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.car.service;
+
+import com.example.car.dto.DashboardEvent;
+import com.example.car.messages.MessageCollector;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous, bounded channel for dashboard messages.
+ * Publishing never blocks the caller: events are queued and handed to the subscribers on a dedicated thread.
+ * When the queue is full the event is dropped and counted, so slow subscribers cannot slow down car operations.
+ * Inside a transaction an event is only queued once the transaction has committed, so attempts re-run by the
+ * optimistic locking and rolled back changes show nothing on the dashboard.
+ */
+@Component
+public class DashboardEventChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardEventChannel.class);
+
+    private final BlockingQueue<DashboardEvent> queue;
+    private final List<Consumer<DashboardEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final Thread dispatcher = new Thread(this::dispatch, "dashboard-events");
+
+    public DashboardEventChannel(MeterRegistry meterRegistry,
+                                 @Value("${car.dashboard.queue-capacity:10000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("car.dashboard.events.queued", queue, BlockingQueue::size)
+                .register(meterRegistry);
+        FunctionCounter.builder("car.dashboard.events.dropped", droppedEvents, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startDispatcher() {
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void stopDispatcher() {
+        dispatcher.interrupt();
+    }
+
+    public void publish(DashboardEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    public void subscribe(Consumer<DashboardEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void unsubscribe(Consumer<DashboardEvent> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    private void enqueue(DashboardEvent event) {
+        if (!queue.offer(event)) {
+            droppedEvents.incrementAndGet();
+        }
+    }
+
+    private void dispatch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                DashboardEvent event = queue.take();
+                for (Consumer<DashboardEvent> subscriber : subscribers) {
+                    try {
+                        subscriber.accept(event);
+                    } catch (RuntimeException e) {
+                        logger.error(MessageCollector.DASHBOARD_SUBSCRIBER_FAILED_LOG, event.getCarId(), e);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
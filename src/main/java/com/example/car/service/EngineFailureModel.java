@@ -0,0 +1,13 @@
+package com.example.car.service;
+
+import com.example.car.entity.Engine;
+
+/**
+ * Decides whether an engine starts, see {@link com.example.car.config.EngineFailureModelConfig} for the
+ * implementation used by a deployment. Called for every start, so implementations must be thread safe
+ * and must not block.
+ */
+public interface EngineFailureModel {
+
+    boolean canStart(Engine engine);
+}
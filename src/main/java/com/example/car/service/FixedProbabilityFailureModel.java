@@ -0,0 +1,27 @@
+package com.example.car.service;
+
+import com.example.car.entity.Engine;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Every start fails with the same probability, whatever the state of the engine.
+ */
+public class FixedProbabilityFailureModel implements EngineFailureModel {
+
+    private final double failureProbability;
+    private final DoubleSupplier random;
+
+    /**
+     * @param random source of uniformly distributed values in [0, 1)
+     */
+    public FixedProbabilityFailureModel(double failureProbability, DoubleSupplier random) {
+        this.failureProbability = failureProbability;
+        this.random = random;
+    }
+
+    @Override
+    public boolean canStart(Engine engine) {
+        return random.getAsDouble() >= failureProbability;
+    }
+}
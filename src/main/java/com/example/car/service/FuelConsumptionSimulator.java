@@ -0,0 +1,205 @@
+package com.example.car.service;
+
+import com.example.car.dto.CarResponse;
+import com.example.car.dto.DashboardEvent;
+import com.example.car.messages.MessageCollector;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets running engines use fuel over time.
+ * Every tick takes the configured amount from the tank of each running car and stops the engines whose tank is empty.
+ * The fleet is ticked in ranges of fuel tank ids, each with a few set-based statements in a short transaction of its own,
+ * so no car is loaded and a tick of a large fleet never locks all of it at once. The statements reach the tanks through
+ * their primary key and the engines through the car, so a range costs the same however large the fleet is.
+ * <p>
+ * Every node with the simulation enabled schedules ticks, but each tick interval is claimed in {@code simulation_tick}
+ * with a conditional update first, so only one node runs it and the fleet uses fuel at the configured rate however
+ * many nodes there are. The intervals are counted from the epoch, so the clocks of the nodes must be in sync.
+ * <p>
+ * The ticks work on the database rows, so the simulation cannot be combined with write-behind or event-sourced mode,
+ * which keep the live state in memory. Ticks, simulated cars and stopped engines are published under
+ * {@code car.simulation.*}, the rate of {@code car.simulation.cars} is the number of cars simulated per second.
+ */
+@Component
+@ConditionalOnProperty(name = "car.simulation.enabled", havingValue = "true")
+public class FuelConsumptionSimulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(FuelConsumptionSimulator.class);
+
+    private static final String CLAIM_TICK = "update simulation_tick set last_tick = ? where id = 1 and last_tick < ?";
+    private static final String SELECT_ID_RANGE = "select min(id), max(id) from fuel_tank";
+    private static final String CONSUME_FUEL = "update fuel_tank f set fuel_level = greatest(f.fuel_level - ?, 0), version = f.version + 1"
+            + " where f.id >= ? and f.id < ? and f.fuel_level > 0"
+            + " and exists (select 1 from car c join engine e on e.id = c.engine where c.fuel_tank = f.id and e.running = true)";
+    private static final String SELECT_EMPTY_RUNNING_CARS = "select c.id, c.engine, c.dashboard from fuel_tank f"
+            + " join car c on c.fuel_tank = f.id join engine e on e.id = c.engine"
+            + " where f.id >= ? and f.id < ? and f.fuel_level = 0 and e.running = true";
+    private static final String STOP_ENGINES = "update engine set running = false, version = version + 1 where id in (:ids)";
+    private static final String UPDATE_DASHBOARDS = "update dashboard set current_message = :message, version = version + 1 where id in (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CarStatusCache carStatusCache;
+    private final DashboardEventChannel dashboardEventChannel;
+    private final CarStateEventBus carStateEventBus;
+    private final long tickIntervalMillis;
+    private final int fuelPerTick;
+    private final int carsPerTransaction;
+
+    private final Timer tickTimer;
+    private final Counter simulatedCars;
+    private final Counter stoppedEngines;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fuel-consumption-ticker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FuelConsumptionSimulator(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    CarStatusCache carStatusCache,
+                                    DashboardEventChannel dashboardEventChannel,
+                                    CarStateEventBus carStateEventBus,
+                                    MeterRegistry meterRegistry,
+                                    Optional<CarStateStore> carStateStore,
+                                    @Value("${car.simulation.tick-interval-ms:1000}") long tickIntervalMillis,
+                                    @Value("${car.simulation.fuel-per-tick:1}") int fuelPerTick,
+                                    @Value("${car.simulation.cars-per-transaction:10000}") int carsPerTransaction) {
+        if (carStateStore.isPresent()) {
+            throw new IllegalStateException(MessageCollector.SIMULATION_WITH_IN_MEMORY_STATE);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.carStatusCache = carStatusCache;
+        this.dashboardEventChannel = dashboardEventChannel;
+        this.carStateEventBus = carStateEventBus;
+        this.tickIntervalMillis = tickIntervalMillis;
+        this.fuelPerTick = fuelPerTick;
+        this.carsPerTransaction = carsPerTransaction;
+        this.tickTimer = Timer.builder("car.simulation.tick")
+                .register(meterRegistry);
+        this.simulatedCars = Counter.builder("car.simulation.cars")
+                .register(meterRegistry);
+        this.stoppedEngines = Counter.builder("car.simulation.engines.stopped")
+                .register(meterRegistry);
+    }
+
+    // Ticks fire in the middle of their interval, so jitter never moves one into the neighbouring interval's claim
+    @PostConstruct
+    void startTicker() {
+        long initialDelay = tickIntervalMillis - System.currentTimeMillis() % tickIntervalMillis + tickIntervalMillis / 2;
+        ticker.scheduleAtFixedRate(this::scheduledTick, initialDelay, tickIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopTicker() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Runs one tick over the whole fleet and returns the number of running cars that used fuel.
+     */
+    public synchronized int tick() {
+        long start = System.nanoTime();
+        long[] idRange = jdbcTemplate.queryForObject(SELECT_ID_RANGE,
+                (resultSet, rowNum) -> new long[]{resultSet.getLong(1), resultSet.getLong(2)});
+        int consumed = 0;
+        List<Long> stoppedCarIds = new ArrayList<>();
+        for (long fromId = idRange[0]; fromId <= idRange[1]; fromId += carsPerTransaction) {
+            RangeTick rangeTick = tickRange(fromId, fromId + carsPerTransaction);
+            consumed += rangeTick.consumed;
+            stoppedCarIds.addAll(rangeTick.stoppedCarIds);
+        }
+        if (consumed > 0) {
+            carStatusCache.invalidateFuelLevels();
+        }
+        for (Long carId : stoppedCarIds) {
+            dashboardEventChannel.publish(new DashboardEvent(carId, MessageCollector.FUEL_RAN_OUT));
+            carStateEventBus.publish(new CarResponse(carId, false, 0, MessageCollector.FUEL_RAN_OUT));
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        tickTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        simulatedCars.increment(consumed);
+        stoppedEngines.increment(stoppedCarIds.size());
+        logger.debug(MessageCollector.SIMULATION_TICK_LOG, consumed, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), stoppedCarIds.size());
+        return consumed;
+    }
+
+    private RangeTick tickRange(long fromId, long toId) {
+        return transactionTemplate.execute(status -> {
+            int consumed = jdbcTemplate.update(CONSUME_FUEL, fuelPerTick, fromId, toId);
+            List<Long> carIds = new ArrayList<>();
+            List<Long> engineIds = new ArrayList<>();
+            List<Long> dashboardIds = new ArrayList<>();
+            jdbcTemplate.query(SELECT_EMPTY_RUNNING_CARS, resultSet -> {
+                carIds.add(resultSet.getLong(1));
+                engineIds.add(resultSet.getLong(2));
+                dashboardIds.add(resultSet.getLong(3));
+            }, fromId, toId);
+            if (!carIds.isEmpty()) {
+                namedParameterJdbcTemplate.update(STOP_ENGINES, new MapSqlParameterSource("ids", engineIds));
+                namedParameterJdbcTemplate.update(UPDATE_DASHBOARDS, new MapSqlParameterSource("ids", dashboardIds)
+                        .addValue("message", MessageCollector.FUEL_RAN_OUT));
+                carIds.forEach(carStatusCache::invalidate);
+            }
+            return new RangeTick(consumed, carIds);
+        });
+    }
+
+    /**
+     * Claims the tick with the given number for this node. Returns false if this or another node already claimed it
+     * or a later one.
+     */
+    boolean claimTick(long tickNumber) {
+        return jdbcTemplate.update(CLAIM_TICK, tickNumber, tickNumber) == 1;
+    }
+
+    // A failure must not escape, it would cancel the schedule
+    private void scheduledTick() {
+        try {
+            long tickNumber = System.currentTimeMillis() / tickIntervalMillis;
+            if (claimTick(tickNumber)) {
+                tick();
+            } else {
+                logger.debug(MessageCollector.SIMULATION_TICK_CLAIMED_LOG, tickNumber);
+            }
+        } catch (RuntimeException e) {
+            logger.error(MessageCollector.SIMULATION_TICK_FAILED_LOG, e);
+        }
+    }
+
+    // Cars of one id range that used fuel, and the cars among them whose engine was stopped
+    private static final class RangeTick {
+
+        private final int consumed;
+        private final List<Long> stoppedCarIds;
+
+        RangeTick(int consumed, List<Long> stoppedCarIds) {
+            this.consumed = consumed;
+            this.stoppedCarIds = stoppedCarIds;
+        }
+    }
+}
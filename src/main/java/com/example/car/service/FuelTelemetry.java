@@ -0,0 +1,221 @@
+package com.example.car.service;
+
+import com.example.car.dto.FleetTelemetry;
+import com.example.car.messages.MessageCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory telemetry of the car operations of this node: starts, failed starts and refuels per second,
+ * and the fuel levels of the fleet in fixed-width buckets.
+ * <p>
+ * Every counter is a ring of one slot per second, a single long holding the second in its upper half and the count
+ * in its lower half. Recording adds to the slot with a compare-and-set, which also clears a slot left from an earlier
+ * lap of the ring, so no lock is taken and nothing is allocated for the counts. A query adds up the slots of the
+ * seconds in its window, its cost depends on the window and not on the size of the fleet.
+ * <p>
+ * The operations are recorded once their transaction has committed, so re-run and rolled back attempts are not counted.
+ * The histogram follows the fuel changes made through {@link CarService} and is rebuilt from {@code fuel_tank}
+ * in the background, which also brings in the fuel used by the simulation, changes made by other nodes and the drift
+ * of changes applied to stale tanks.
+ */
+@Component
+public class FuelTelemetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(FuelTelemetry.class);
+
+    private static final String SELECT_FUEL_LEVELS = "select fuel_level, count(*) from fuel_tank group by fuel_level";
+    private static final long COUNT_MASK = 0xFFFF_FFFFL;
+
+    private static final int STARTS = 0;
+    private static final int START_FAILURES = 1;
+    private static final int REFUELS = 2;
+    private static final int REFUELED_LITERS = 3;
+    private static final int COUNTERS = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LongSupplier currentSecond;
+    private final int windowSeconds;
+    private final int fuelBucketWidth;
+    private final int fuelBuckets;
+    private final long histogramRefreshMillis;
+
+    private final AtomicLongArray[] counters = new AtomicLongArray[COUNTERS];
+    private final AtomicReference<AtomicLongArray> fuelLevels;
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fuel-telemetry-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public FuelTelemetry(JdbcTemplate jdbcTemplate,
+                         @Value("${car.telemetry.window-seconds:3600}") int windowSeconds,
+                         @Value("${car.telemetry.fuel-bucket-width:10}") int fuelBucketWidth,
+                         @Value("${car.telemetry.fuel-buckets:10}") int fuelBuckets,
+                         @Value("${car.telemetry.histogram-refresh-ms:60000}") long histogramRefreshMillis) {
+        this(jdbcTemplate, () -> System.currentTimeMillis() / 1000, windowSeconds, fuelBucketWidth, fuelBuckets, histogramRefreshMillis);
+    }
+
+    FuelTelemetry(JdbcTemplate jdbcTemplate, LongSupplier currentSecond, int windowSeconds,
+                  int fuelBucketWidth, int fuelBuckets, long histogramRefreshMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.currentSecond = currentSecond;
+        this.windowSeconds = windowSeconds;
+        this.fuelBucketWidth = fuelBucketWidth;
+        this.fuelBuckets = fuelBuckets;
+        this.histogramRefreshMillis = histogramRefreshMillis;
+        for (int counter = 0; counter < COUNTERS; counter++) {
+            counters[counter] = new AtomicLongArray(windowSeconds);
+        }
+        this.fuelLevels = new AtomicReference<>(new AtomicLongArray(fuelBuckets));
+    }
+
+    @PostConstruct
+    void startRefresh() {
+        if (histogramRefreshMillis > 0) {
+            refresher.scheduleWithFixedDelay(this::refreshFuelLevels, 0, histogramRefreshMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stopRefresh() {
+        refresher.shutdownNow();
+    }
+
+    public void carsCreated(int count, int fuelLevel) {
+        afterCommit(() -> fuelLevels.get().addAndGet(bucket(fuelLevel), count));
+    }
+
+    public void started(int fuelBefore, int fuelAfter) {
+        afterCommit(() -> {
+            add(STARTS, 1);
+            moveFuelLevel(fuelBefore, fuelAfter);
+        });
+    }
+
+    public void startFailed() {
+        afterCommit(() -> add(START_FAILURES, 1));
+    }
+
+    public void refueled(int amount, int fuelBefore, int fuelAfter) {
+        afterCommit(() -> {
+            add(REFUELS, 1);
+            add(REFUELED_LITERS, amount);
+            moveFuelLevel(fuelBefore, fuelAfter);
+        });
+    }
+
+    /**
+     * Sums the counters of the last {@code seconds} seconds, the current one included,
+     * and takes a copy of the fuel level histogram.
+     */
+    public FleetTelemetry snapshot(int seconds) {
+        if (seconds < 1 || seconds > windowSeconds) {
+            throw new IllegalArgumentException(MessageCollector.invalidTelemetryWindow(seconds, windowSeconds));
+        }
+        long now = currentSecond.getAsLong();
+        long starts = sum(STARTS, now, seconds);
+        long startFailures = sum(START_FAILURES, now, seconds);
+        long refuels = sum(REFUELS, now, seconds);
+        long refueledLiters = sum(REFUELED_LITERS, now, seconds);
+        double minutes = seconds / 60.0;
+        long attempts = starts + startFailures;
+
+        AtomicLongArray levels = fuelLevels.get();
+        long[] fuelLevelCounts = new long[fuelBuckets];
+        for (int bucket = 0; bucket < fuelBuckets; bucket++) {
+            // A change applied to a stale tank can take a bucket below zero until the next refresh
+            fuelLevelCounts[bucket] = Math.max(levels.get(bucket), 0);
+        }
+        return new FleetTelemetry(seconds, starts, startFailures, attempts == 0 ? 0 : (double) startFailures / attempts,
+                starts / minutes, refuels, refueledLiters, refueledLiters / minutes, fuelBucketWidth, fuelLevelCounts);
+    }
+
+    /**
+     * Rebuilds the fuel level histogram from the database. Changes recorded while the query runs may be lost
+     * or counted twice, the next refresh corrects them.
+     */
+    void refreshFuelLevels() {
+        try {
+            AtomicLongArray levels = new AtomicLongArray(fuelBuckets);
+            jdbcTemplate.query(SELECT_FUEL_LEVELS, resultSet -> {
+                levels.addAndGet(bucket(resultSet.getInt(1)), resultSet.getLong(2));
+            });
+            fuelLevels.set(levels);
+        } catch (RuntimeException e) {
+            logger.error(MessageCollector.FUEL_TELEMETRY_REFRESH_FAILED_LOG, e);
+        }
+    }
+
+    private void moveFuelLevel(int fuelBefore, int fuelAfter) {
+        int from = bucket(fuelBefore);
+        int to = bucket(fuelAfter);
+        if (from != to) {
+            AtomicLongArray levels = fuelLevels.get();
+            levels.decrementAndGet(from);
+            levels.incrementAndGet(to);
+        }
+    }
+
+    // The last bucket also holds every level above the histogram's range
+    private int bucket(int fuelLevel) {
+        return Math.max(0, Math.min(fuelLevel / fuelBucketWidth, fuelBuckets - 1));
+    }
+
+    private void add(int counter, int amount) {
+        AtomicLongArray slots = counters[counter];
+        long now = currentSecond.getAsLong();
+        int index = (int) (now % windowSeconds);
+        long second = now;
+        long slot;
+        long updated;
+        do {
+            slot = slots.get(index);
+            // Another thread may already have moved the slot to the next lap, count into its second then
+            second = Math.max(second, slot >>> 32);
+            long count = slot >>> 32 == second ? slot & COUNT_MASK : 0;
+            updated = second << 32 | ((count + amount) & COUNT_MASK);
+        } while (!slots.compareAndSet(index, slot, updated));
+    }
+
+    private long sum(int counter, long now, int seconds) {
+        AtomicLongArray slots = counters[counter];
+        long total = 0;
+        for (long second = now - seconds + 1; second <= now; second++) {
+            long slot = slots.get((int) (second % windowSeconds));
+            if (slot >>> 32 == second) {
+                total += slot & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    private static void afterCommit(Runnable record) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record.run();
+                }
+            });
+        } else {
+            record.run();
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.car.service;
+
+import com.example.car.messages.MessageCollector;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, expiring record of the responses of requests sent with an {@code Idempotency-Key}.
+ * A repeated key returns the recorded response without running the request again. A request that arrives while
+ * the first one with its key is still running waits for it instead of running in parallel. Only returned
+ * responses are recorded, so a request that threw can be retried with the same key.
+ * <p>
+ * Responses live in memory, the least used are evicted beyond the size limit and all expire after the ttl.
+ * With the database store enabled they are also written to the {@code idempotency_key} table, so they survive
+ * a restart and are shared between nodes. The key is inserted before the request runs, without a response yet.
+ * Of the nodes that get the same key at once only the one whose insert wins runs the request, the others wait for
+ * its response to be written and replay it. A request that throws deletes its row again. A row still waiting for its
+ * response after the claim timeout is taken over, so a node that crashed mid-request lets one retry run again.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final long MIN_POLL_MILLIS = 10;
+    private static final long MAX_POLL_MILLIS = 200;
+
+    private static final String SELECT_RECORD = "select fingerprint, response, created_at from idempotency_key where idempotency_key = ?";
+    private static final String INSERT_CLAIM = "insert into idempotency_key (idempotency_key, fingerprint, response, created_at) values (?, ?, null, ?)";
+    private static final String UPDATE_RESPONSE = "update idempotency_key set response = ?, created_at = ? where idempotency_key = ? and response is null";
+    private static final String DELETE_CLAIM = "delete from idempotency_key where idempotency_key = ? and response is null";
+    // Only deletes the row that was read, not one written by another node since
+    private static final String DELETE_RECORD = "delete from idempotency_key where idempotency_key = ? and created_at = ?";
+    private static final String DELETE_EXPIRED = "delete from idempotency_key where created_at <= ?";
+
+    private final Cache<String, CompletableFuture<RecordedResponse>> responses;
+    private final Duration ttl;
+    private final boolean databaseEnabled;
+    private final Duration claimTimeout;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Counter replays;
+    private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-key-purger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            JdbcTemplate jdbcTemplate,
+                            ObjectMapper objectMapper,
+                            @Value("${car.idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${car.idempotency.ttl-ms:86400000}") long ttlMillis,
+                            @Value("${car.idempotency.database.enabled:false}") boolean databaseEnabled,
+                            @Value("${car.idempotency.database.claim-timeout-ms:10000}") long claimTimeoutMillis) {
+        this.ttl = Duration.ofMillis(ttlMillis);
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.databaseEnabled = databaseEnabled;
+        this.claimTimeout = Duration.ofMillis(claimTimeoutMillis);
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.replays = Counter.builder("car.idempotency.replays")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startPurger() {
+        if (databaseEnabled) {
+            long intervalMillis = Math.max(ttl.toMillis() / 10, 1000);
+            purger.scheduleWithFixedDelay(this::deleteExpired, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stopPurger() {
+        purger.shutdownNow();
+    }
+
+    /**
+     * Runs the request, or returns the recorded response if the key was seen before.
+     * Without a key the request just runs. The fingerprint identifies the request the key was first used for,
+     * reusing a key for a different request is rejected with an {@link IllegalArgumentException}.
+     *
+     * @param responseType type of the response, used to read it back from the database store
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, String fingerprint, TypeReference<T> responseType, Supplier<T> request) {
+        if (key == null) {
+            return request.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(MessageCollector.invalidIdempotencyKey(MAX_KEY_LENGTH));
+        }
+
+        CompletableFuture<RecordedResponse> attempt = new CompletableFuture<>();
+        CompletableFuture<RecordedResponse> recorded = responses.asMap().putIfAbsent(key, attempt);
+        if (recorded != null) {
+            return (T) replay(key, fingerprint, recorded);
+        }
+
+        try {
+            RecordedResponse response = databaseEnabled
+                    ? executeOnce(key, fingerprint, responseType, request)
+                    : new RecordedResponse(fingerprint, request.get());
+            attempt.complete(response);
+            return (T) checked(key, fingerprint, response).getResponse();
+        } catch (RuntimeException e) {
+            responses.asMap().remove(key, attempt);
+            attempt.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object replay(String key, String fingerprint, CompletableFuture<RecordedResponse> recorded) {
+        RecordedResponse response;
+        try {
+            response = recorded.join();
+        } catch (CompletionException e) {
+            // the request with this key failed while we waited, its failure is ours
+            throw (RuntimeException) e.getCause();
+        }
+        logger.debug(MessageCollector.IDEMPOTENT_REPLAY_LOG, key);
+        replays.increment();
+        return checked(key, fingerprint, response).getResponse();
+    }
+
+    private static RecordedResponse checked(String key, String fingerprint, RecordedResponse response) {
+        if (!response.getFingerprint().equals(fingerprint)) {
+            throw new IllegalArgumentException(MessageCollector.idempotencyKeyReused(key));
+        }
+        return response;
+    }
+
+    // Runs the request if this node inserts the key first, otherwise waits for the response of the node that did
+    private <T> RecordedResponse executeOnce(String key, String fingerprint, TypeReference<T> responseType, Supplier<T> request) {
+        long waitDeadline = System.nanoTime() + claimTimeout.toNanos();
+        long pollMillis = MIN_POLL_MILLIS;
+        while (true) {
+            if (claim(key, fingerprint)) {
+                return runClaimed(key, fingerprint, request);
+            }
+            StoredRecord stored = findInDatabase(key);
+            if (stored == null) {
+                // the request that claimed the key failed meanwhile, claim it again
+                continue;
+            }
+            boolean expired = !stored.createdAt.toInstant().isAfter(Instant.now().minus(ttl));
+            if (expired || stored.response == null && System.nanoTime() - waitDeadline > 0) {
+                // an expired record, or a claim whose node stopped answering, gives the key to this request
+                jdbcTemplate.update(DELETE_RECORD, key, stored.createdAt);
+                continue;
+            }
+            if (!stored.fingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException(MessageCollector.idempotencyKeyReused(key));
+            }
+            if (stored.response != null) {
+                replays.increment();
+                return new RecordedResponse(stored.fingerprint, read(stored.response, responseType));
+            }
+            pollMillis = pause(pollMillis);
+        }
+    }
+
+    private boolean claim(String key, String fingerprint) {
+        try {
+            jdbcTemplate.update(INSERT_CLAIM, key, fingerprint, Timestamp.from(Instant.now()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private <T> RecordedResponse runClaimed(String key, String fingerprint, Supplier<T> request) {
+        RecordedResponse response;
+        try {
+            response = new RecordedResponse(fingerprint, request.get());
+        } catch (RuntimeException e) {
+            releaseClaim(key);
+            throw e;
+        }
+        saveInDatabase(key, response);
+        return response;
+    }
+
+    private StoredRecord findInDatabase(String key) {
+        List<StoredRecord> rows = jdbcTemplate.query(SELECT_RECORD,
+                (resultSet, rowNum) -> new StoredRecord(resultSet.getString(1), resultSet.getString(2), resultSet.getTimestamp(3)),
+                key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // The request already ran, so a failed record is only logged, the response is still returned
+    private void saveInDatabase(String key, RecordedResponse response) {
+        try {
+            jdbcTemplate.update(UPDATE_RESPONSE, objectMapper.writeValueAsString(response.getResponse()),
+                    Timestamp.from(Instant.now()), key);
+        } catch (JsonProcessingException | DataAccessException e) {
+            logger.error(MessageCollector.IDEMPOTENCY_RECORD_FAILED_LOG, key, e);
+        }
+    }
+
+    // The request failed, so it may run again, here or on a node waiting for it
+    private void releaseClaim(String key) {
+        try {
+            jdbcTemplate.update(DELETE_CLAIM, key);
+        } catch (DataAccessException e) {
+            logger.error(MessageCollector.IDEMPOTENCY_RELEASE_FAILED_LOG, key, e);
+        }
+    }
+
+    private static long pause(long pollMillis) {
+        try {
+            Thread.sleep(pollMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+    }
+
+    private <T> T read(String json, TypeReference<T> responseType) {
+        try {
+            return objectMapper.readValue(json, responseType);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A failure must not escape, it would cancel the schedule
+    private void deleteExpired() {
+        try {
+            jdbcTemplate.update(DELETE_EXPIRED, Timestamp.from(Instant.now().minus(ttl)));
+        } catch (DataAccessException e) {
+            logger.error(MessageCollector.IDEMPOTENCY_PURGE_FAILED_LOG, e);
+        }
+    }
+
+    // A row of the idempotency_key table, the response is null while the request that claimed the key runs
+    private static final class StoredRecord {
+
+        private final String fingerprint;
+        private final String response;
+        private final Timestamp createdAt;
+
+        StoredRecord(String fingerprint, String response, Timestamp createdAt) {
+            this.fingerprint = fingerprint;
+            this.response = response;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class RecordedResponse {
+
+        private final String fingerprint;
+        private final Object response;
+
+        RecordedResponse(String fingerprint, Object response) {
+            this.fingerprint = fingerprint;
+            this.response = response;
+        }
+
+        String getFingerprint() {
+            return fingerprint;
+        }
+
+        Object getResponse() {
+            return response;
+        }
+    }
+}
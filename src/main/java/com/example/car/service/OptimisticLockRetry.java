@@ -0,0 +1,95 @@
+package com.example.car.service;
+
+import com.example.car.messages.MessageCollector;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs an operation in its own transaction and re-runs it when the commit fails because another transaction
+ * changed one of the versioned rows in the meantime.
+ * Attempts are bounded and separated by a random backoff that grows with each attempt (full jitter),
+ * so competing writers of a hot car do not collide again in lockstep.
+ * Conflicts, retries and exhausted operations are counted per operation under {@code car.optimistic-lock.*}.
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticLockRetry(TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${car.optimistic-lock.max-attempts:3}") int maxAttempts,
+                               @Value("${car.optimistic-lock.backoff-ms:10}") long backoffMillis,
+                               @Value("${car.optimistic-lock.max-backoff-ms:200}") long maxBackoffMillis) {
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Executes the operation in a transaction, retrying it on optimistic lock conflicts.
+     * Inside an already running transaction the operation joins it and is executed once,
+     * as only the outermost transaction can be rolled back and started over.
+     */
+    public <T> T execute(String operationName, Supplier<T> operation) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return operation.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> operation.get());
+            } catch (OptimisticLockingFailureException e) {
+                count("car.optimistic-lock.conflicts", operationName);
+                if (attempt >= maxAttempts) {
+                    count("car.optimistic-lock.exhausted", operationName);
+                    logger.warn(MessageCollector.OPTIMISTIC_LOCK_EXHAUSTED_LOG, operationName, attempt);
+                    throw e;
+                }
+                count("car.optimistic-lock.retries", operationName);
+                long delay = backoff(attempt);
+                logger.debug(MessageCollector.OPTIMISTIC_LOCK_RETRY_LOG, operationName, attempt + 1, maxAttempts, delay);
+                sleep(delay, e);
+            }
+        }
+    }
+
+    // Random delay between zero and the exponentially growing, capped backoff of the attempt
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void sleep(long millis, OptimisticLockingFailureException conflict) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private void count(String name, String operationName) {
+        Counter.builder(name)
+                .tag("operation", operationName)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.car.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Deterministic, thread safe source of uniformly distributed values in [0, 1) for reproducible runs.
+ * The n-th value is derived from the seed and n alone (the SplitMix64 mixing function),
+ * so the same seed always yields the same sequence and threads only share an atomic counter instead of a lock.
+ * With concurrent callers the sequence is the same, only which caller gets which value depends on the scheduling.
+ */
+public class SeededRandom implements DoubleSupplier {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private final long seed;
+    private final AtomicLong counter = new AtomicLong();
+
+    public SeededRandom(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public double getAsDouble() {
+        return (mix64(seed + counter.incrementAndGet() * GOLDEN_GAMMA) >>> 11) * DOUBLE_UNIT;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.car.service;
+
+import com.example.car.entity.Engine;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * The failure probability of an engine grows with the number of times it has been started,
+ * from the base probability of a new engine by a fixed amount per start, up to a maximum.
+ */
+public class WearBasedFailureModel implements EngineFailureModel {
+
+    private final double baseProbability;
+    private final double wearPerStart;
+    private final double maxProbability;
+    private final DoubleSupplier random;
+
+    /**
+     * @param random source of uniformly distributed values in [0, 1)
+     */
+    public WearBasedFailureModel(double baseProbability, double wearPerStart, double maxProbability, DoubleSupplier random) {
+        this.baseProbability = baseProbability;
+        this.wearPerStart = wearPerStart;
+        this.maxProbability = maxProbability;
+        this.random = random;
+    }
+
+    @Override
+    public boolean canStart(Engine engine) {
+        return random.getAsDouble() >= failureProbability(engine);
+    }
+
+    double failureProbability(Engine engine) {
+        return Math.min(maxProbability, baseProbability + wearPerStart * engine.getStartCount());
+    }
+}
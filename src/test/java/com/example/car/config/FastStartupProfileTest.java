@@ -0,0 +1,40 @@
+package com.example.car.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The profile only verifies the schema, its own database is migrated like any other test database
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:car_fast_startup;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "car.liquibase.mode=migrate",
+        "car.simulation.enabled=true",
+        "car.simulation.tick-interval-ms=3600000"
+})
+@ActiveProfiles("fast-startup")
+class FastStartupProfileTest {
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Test
+    void fastStartupProfile_shouldCreateTheRequestPathAndBackgroundWorkersOnStartup() {
+        assertTrue(isCreated("carController"));
+        assertTrue(isCreated("carService"));
+        assertTrue(isCreated("fuelConsumptionSimulator"));
+        assertTrue(isCreated("idempotencyStore"));
+    }
+
+    @Test
+    void fastStartupProfile_shouldCreateOtherBeansOnFirstUse() {
+        assertFalse(isCreated("healthEndpoint"));
+    }
+
+    private boolean isCreated(String beanName) {
+        return applicationContext.getBeanFactory().containsSingleton(beanName);
+    }
+}
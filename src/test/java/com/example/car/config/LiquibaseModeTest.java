@@ -0,0 +1,57 @@
+package com.example.car.config;
+
+import com.example.car.CarApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Every test starts its own application on a database of its own, so it sees the schema a mode leaves behind
+class LiquibaseModeTest {
+
+    private static final String CHANGE_LOG_TABLE_COUNT =
+            "select count(*) from information_schema.tables where table_name = 'DATABASECHANGELOG'";
+
+    @Test
+    void verifyMode_whenChangeSetsArePending_shouldFailStartup() {
+        // Act
+        Exception exception = assertThrows(Exception.class, () -> start("car_liquibase_pending", "verify").close());
+
+        // Assert
+        assertTrue(NestedExceptionUtils.getMostSpecificCause(exception).getMessage().contains("have not been applied yet"),
+                exception.getMessage());
+    }
+
+    @Test
+    void verifyMode_afterMigration_shouldStart() {
+        // Arrange
+        start("car_liquibase_migrated", "migrate").close();
+
+        // Act
+        try (ConfigurableApplicationContext context = start("car_liquibase_migrated", "verify")) {
+            // Assert
+            assertTrue(context.isActive());
+        }
+    }
+
+    @Test
+    void skipMode_shouldNotReadTheChangeLog() {
+        // Act
+        try (ConfigurableApplicationContext context = start("car_liquibase_skipped", "skip")) {
+            // Assert
+            Integer tables = context.getBean(JdbcTemplate.class).queryForObject(CHANGE_LOG_TABLE_COUNT, Integer.class);
+            assertEquals(0, tables);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String database, String mode) {
+        return new SpringApplicationBuilder(CarApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--car.liquibase.mode=" + mode);
+    }
+}
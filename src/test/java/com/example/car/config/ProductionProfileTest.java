@@ -0,0 +1,44 @@
+package com.example.car.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The inline properties take precedence over the profile, so only its PostgreSQL url is replaced
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:car_prod_profile;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@ActiveProfiles("prod")
+class ProductionProfileTest {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void prodProfile_shouldDisableOpenSessionInView() {
+        assertTrue(applicationContext.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+    }
+
+    @Test
+    void prodProfile_shouldUseFixedSizePool() throws SQLException {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+
+        assertEquals("car-pool", hikari.getPoolName());
+        assertEquals(20, hikari.getMaximumPoolSize());
+        assertEquals(20, hikari.getMinimumIdle());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.car.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "car.datasource.replica.url=jdbc:h2:mem:car_replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;INIT=CREATE TABLE IF NOT EXISTS replica_marker(id INT)",
+        "car.datasource.replica.username=sa"
+})
+class ReplicaDataSourceConfigTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyTransaction_shouldUseReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Integer markers = readOnly.execute(status ->
+                jdbcTemplate.queryForObject("select count(*) from replica_marker", Integer.class));
+
+        assertEquals(0, markers);
+    }
+
+    @Test
+    void readWriteTransaction_shouldUsePrimary() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        Integer cars = readWrite.execute(status ->
+                jdbcTemplate.queryForObject("select count(*) from car", Integer.class));
+
+        assertNotNull(cars);
+    }
+}
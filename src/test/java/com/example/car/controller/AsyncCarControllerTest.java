@@ -0,0 +1,84 @@
+package com.example.car.controller;
+
+import com.example.car.entity.Car;
+import com.example.car.service.CarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "car.async.enabled=true")
+@AutoConfigureMockMvc
+class AsyncCarControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarService carService;
+
+    @Test
+    void refuelCar_shouldCompleteAsynchronously() throws Exception {
+        Car car = carService.createCar();
+
+        MvcResult result = mockMvc.perform(post("/api/cars/{carId}/refuel", car.getId()).param("amount", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fuelLevel").value(60));
+    }
+
+    @Test
+    void stopCar_whenCarDoesNotExist_shouldReturnNotFound() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/cars/{carId}/stop", Long.MAX_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("NOT_FOUND"));
+    }
+
+    @Test
+    void checkFuelLevel_shouldCompleteAsynchronously() throws Exception {
+        Car car = carService.createCar();
+
+        MvcResult result = mockMvc.perform(get("/api/cars/{carId}/checkFuelLevel", car.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("50"));
+    }
+
+    @Test
+    void carEvents_shouldStreamInAsyncMode() throws Exception {
+        // Arrange
+        Car car = carService.createCar();
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/cars/{carId}/events", car.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert, the stream starts with the current state of the car
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.getResponse().getContentAsString().contains("\"fuelLevel\":50") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(result.getResponse().getContentAsString().contains("\"fuelLevel\":50"));
+    }
+}
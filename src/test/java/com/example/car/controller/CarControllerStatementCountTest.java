@@ -0,0 +1,136 @@
+package com.example.car.controller;
+
+import com.example.car.entity.Car;
+import com.example.car.service.CarService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements each endpoint sends to the database, so a change that brings back
+ * the per-association SELECT fan-out shows up as a failing test.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class CarControllerStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long carId;
+
+    @BeforeEach
+    void setUp() {
+        Car car = carService.createCar();
+        carId = car.getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void createCars_shouldInsertInBatches() throws Exception {
+        mockMvc.perform(post("/api/cars/bulk").param("count", "200")).andExpect(status().isOk());
+
+        // 800 rows in batched INSERTs of 50 per table plus a sequence call per 50 ids, instead of 800 single INSERTs
+        assertEquals(800, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 32);
+    }
+
+    @Test
+    void createCars_whenCountIsOutOfRange_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/cars/bulk").param("count", "0")).andExpect(status().isBadRequest());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void checkFuelLevel_shouldReadWithOneQuery() throws Exception {
+        mockMvc.perform(get("/api/cars/{carId}/checkFuelLevel", carId)).andExpect(status().isOk());
+
+        // one projection SELECT and no writes
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void checkFuelLevel_whenCached_shouldNotQueryDatabase() throws Exception {
+        mockMvc.perform(get("/api/cars/{carId}/checkFuelLevel", carId)).andExpect(status().isOk());
+        statistics.clear();
+
+        mockMvc.perform(get("/api/cars/{carId}/checkFuelLevel", carId)).andExpect(status().isOk());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void isEngineRunning_shouldReadWithOneQuery() throws Exception {
+        mockMvc.perform(get("/api/cars/{carId}/isEngineRunning", carId)).andExpect(status().isOk());
+
+        // one projection SELECT and no writes
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void startCar_shouldLoadCarWithOneQuery() throws Exception {
+        mockMvc.perform(post("/api/cars/{carId}/start", carId)).andExpect(status().isOk());
+
+        // one SELECT, the conditional fuel tank UPDATE and the read back of its level, the start count UPDATE
+        // and the engine and dashboard UPDATEs
+        assertEquals(6, statistics.getPrepareStatementCount());
+        assertEquals(4, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void stopCar_shouldLoadCarWithOneQuery() throws Exception {
+        mockMvc.perform(post("/api/cars/{carId}/stop", carId)).andExpect(status().isOk());
+
+        // one SELECT plus the dashboard UPDATE, the engine of a new car is already stopped
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void refuelCar_shouldLoadCarWithOneQuery() throws Exception {
+        mockMvc.perform(post("/api/cars/{carId}/refuel", carId).param("amount", "10")).andExpect(status().isOk());
+
+        // one SELECT plus the fuel tank UPDATE, the read back of its level and the dashboard UPDATE
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void executeBatch_shouldLoadAllCarsWithOneQuery() throws Exception {
+        Long otherCarId = carService.createCar().getId();
+        statistics.clear();
+        String commands = "[{\"carId\":" + carId + ",\"type\":\"REFUEL\",\"amount\":10}," +
+                "{\"carId\":" + otherCarId + ",\"type\":\"REFUEL\",\"amount\":10}," +
+                "{\"carId\":" + otherCarId + ",\"type\":\"STOP\"}]";
+
+        mockMvc.perform(post("/api/cars/batch").contentType(MediaType.APPLICATION_JSON).content(commands))
+                .andExpect(status().isOk());
+
+        // one SELECT and one batched UPDATE for the dashboards, the locking SELECT of the tanks and the conditional
+        // fuel UPDATEs, sent as one JDBC batch, go through JdbcTemplate and are not in Hibernate's statistics
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(8, statistics.getEntityLoadCount());
+    }
+}
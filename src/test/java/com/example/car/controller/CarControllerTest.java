@@ -0,0 +1,123 @@
+package com.example.car.controller;
+
+import com.example.car.entity.Car;
+import com.example.car.messages.MessageCollector;
+import com.example.car.service.CarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CarControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void refuelCar_shouldReturnFlatCarState() throws Exception {
+        Car car = carService.createCar();
+
+        mockMvc.perform(post("/api/cars/{carId}/refuel", car.getId()).param("amount", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"carId\":" + car.getId() + ",\"running\":false,\"fuelLevel\":60,"
+                        + "\"message\":\"" + MessageCollector.carRefueled(10, 60) + "\"}", true));
+    }
+
+    @Test
+    void startCar_whenTankIsEmpty_shouldReturnConflict() throws Exception {
+        Car car = carService.createCar();
+        jdbcTemplate.update("update fuel_tank set fuel_level = 0 where id = ?", car.getFuelTank().getId());
+
+        mockMvc.perform(post("/api/cars/{carId}/start", car.getId()))
+                .andExpect(status().isConflict())
+                .andExpect(content().json("{\"error\":\"NO_FUEL\",\"message\":\"" + MessageCollector.FUEL_EMPTY + "\"}", true));
+    }
+
+    @Test
+    void startCar_whenCarDoesNotExist_shouldReturnNotFound() throws Exception {
+        mockMvc.perform(post("/api/cars/{carId}/start", Long.MAX_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("NOT_FOUND"));
+    }
+
+    @Test
+    void stopCar_whenCarDoesNotExist_shouldReturnNotFound() throws Exception {
+        mockMvc.perform(post("/api/cars/{carId}/stop", Long.MAX_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(content().json("{\"error\":\"NOT_FOUND\",\"message\":\"" + MessageCollector.CAR_NOT_FOUND + "\"}", true));
+    }
+
+    @Test
+    void refuelCar_whenCarDoesNotExist_shouldReturnNotFound() throws Exception {
+        mockMvc.perform(post("/api/cars/{carId}/refuel", Long.MAX_VALUE).param("amount", "10"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().json("{\"error\":\"NOT_FOUND\",\"message\":\"" + MessageCollector.CAR_NOT_FOUND + "\"}", true));
+    }
+
+    @Test
+    void refuelCar_whenFieldsAreSelected_shouldReturnOnlyThoseFields() throws Exception {
+        Car car = carService.createCar();
+
+        mockMvc.perform(post("/api/cars/{carId}/refuel", car.getId()).param("amount", "10").param("fields", "fuelLevel, running"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"running\":false,\"fuelLevel\":60}", true));
+    }
+
+    @Test
+    void executeBatch_whenCommandHasNoType_shouldReturnBadRequest() throws Exception {
+        Car car = carService.createCar();
+        String commands = "[{\"carId\":" + car.getId() + ",\"type\":\"START\"},{\"carId\":" + car.getId() + "}]";
+
+        mockMvc.perform(post("/api/cars/batch").contentType(MediaType.APPLICATION_JSON).content(commands))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(MessageCollector.invalidBatchCommand(1)));
+    }
+
+    @Test
+    void executeBatch_whenCommandHasNoCarId_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/cars/batch").contentType(MediaType.APPLICATION_JSON).content("[{\"type\":\"STOP\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(MessageCollector.invalidBatchCommand(0)));
+    }
+
+    @Test
+    void executeBatch_whenBatchIsTooLarge_shouldReturnBadRequest() throws Exception {
+        // Arrange
+        Car car = carService.createCar();
+        String command = "{\"carId\":" + car.getId() + ",\"type\":\"STOP\"}";
+        String commands = "[" + String.join(",", Collections.nCopies(1001, command)) + "]";
+
+        // Act / Assert
+        mockMvc.perform(post("/api/cars/batch").contentType(MediaType.APPLICATION_JSON).content(commands))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(MessageCollector.invalidBatchSize(1001, 1000)));
+    }
+
+    @Test
+    void refuelCar_whenAmountIsNegative_shouldReturnBadRequestAndKeepFuel() throws Exception {
+        Car car = carService.createCar();
+
+        mockMvc.perform(post("/api/cars/{carId}/refuel", car.getId()).param("amount", "-60"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(MessageCollector.invalidRefuelAmount(-60)));
+
+        assertEquals(50, carService.checkFuelLevel(car.getId()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.car.controller;
+
+import com.example.car.entity.Car;
+import com.example.car.service.CarCommandDispatcher;
+import com.example.car.service.CarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "car.dispatcher.enabled=true",
+        "car.dispatcher.shards=1",
+        "car.dispatcher.mailbox-capacity=1"
+})
+@AutoConfigureMockMvc
+class CarDispatcherControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarCommandDispatcher carCommandDispatcher;
+
+    @Test
+    void startCar_shouldRunThroughTheDispatcher() throws Exception {
+        Car car = carService.createCar();
+
+        mockMvc.perform(post("/api/cars/{carId}/start", car.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.running").value(true));
+    }
+
+    @Test
+    void startCar_whenMailboxIsFull_shouldReturnTooManyRequests() throws Exception {
+        // Arrange, the only shard is busy and its mailbox holds one more command
+        Car car = carService.createCar();
+        CompletableFuture<Boolean> release = new CompletableFuture<>();
+        CountDownLatch running = new CountDownLatch(1);
+        carCommandDispatcher.submit(car.getId(), () -> {
+            running.countDown();
+            return release.join();
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        carCommandDispatcher.submit(car.getId(), () -> true);
+
+        // Act & Assert
+        try {
+            mockMvc.perform(post("/api/cars/{carId}/start", car.getId()))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        } finally {
+            release.complete(true);
+        }
+    }
+}
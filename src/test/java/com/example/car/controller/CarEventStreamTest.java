@@ -0,0 +1,82 @@
+package com.example.car.controller;
+
+import com.example.car.entity.Car;
+import com.example.car.messages.MessageCollector;
+import com.example.car.service.CarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "car.events.overflow=drop-newest")
+@AutoConfigureMockMvc
+class CarEventStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarService carService;
+
+    @Test
+    void carEvents_shouldStartWithCurrentStateAndPushChanges() throws Exception {
+        // Arrange
+        Car car = carService.createCar();
+        MvcResult stream = mockMvc.perform(get("/api/cars/{carId}/events", car.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(stream.getResponse(), "\"fuelLevel\":50");
+
+        // Act
+        carService.startCar(car.getId());
+
+        // Assert
+        String content = awaitContent(stream.getResponse(), MessageCollector.CAR_STARTED);
+        assertTrue(content.contains("event:" + CarEventStream.EVENT_NAME));
+        assertTrue(content.contains("\"carId\":" + car.getId() + ",\"running\":true,\"fuelLevel\":45"), content);
+    }
+
+    @Test
+    void fleetEvents_shouldPushChangesOfEveryCar() throws Exception {
+        // Arrange
+        Car first = carService.createCar();
+        Car second = carService.createCar();
+        MvcResult stream = mockMvc.perform(get("/api/cars/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Act
+        carService.refuelCar(first.getId(), 5);
+        carService.stopCar(second.getId());
+
+        // Assert
+        awaitContent(stream.getResponse(), "\"carId\":" + first.getId() + ",");
+        awaitContent(stream.getResponse(), "\"carId\":" + second.getId() + ",");
+    }
+
+    @Test
+    void carEvents_whenCarDoesNotExist_shouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/cars/{carId}/events", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            content = response.getContentAsString();
+        }
+        assertTrue(content.contains(expected), content);
+        return content;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.car.controller;
+
+import com.example.car.entity.Car;
+import com.example.car.service.CarService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CarListingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Car> cars = new ArrayList<>();
+    private Long beforeFirstId;
+
+    @BeforeEach
+    void setUp() {
+        cars.clear();
+        for (int i = 0; i < 5; i++) {
+            cars.add(carService.createCar());
+        }
+        beforeFirstId = cars.get(0).getId() - 1;
+        jdbcTemplate.update("update engine set running = true where id in (?, ?)",
+                cars.get(1).getEngine().getId(), cars.get(3).getEngine().getId());
+        jdbcTemplate.update("update fuel_tank set fuel_level = 3 where id = ?", cars.get(4).getFuelTank().getId());
+    }
+
+    @Test
+    void listCars_shouldPageByLastSeenId() throws Exception {
+        mockMvc.perform(get("/api/cars").param("afterId", beforeFirstId.toString()).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cars", hasSize(3)))
+                .andExpect(jsonPath("$.nextAfterId").value(cars.get(2).getId()));
+
+        mockMvc.perform(get("/api/cars").param("afterId", cars.get(2).getId().toString()).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cars[*].carId", contains(cars.get(3).getId().intValue(), cars.get(4).getId().intValue())))
+                .andExpect(jsonPath("$.nextAfterId").doesNotExist());
+    }
+
+    @Test
+    void listCars_shouldFilterByEngineStateAndFuelLevel() throws Exception {
+        mockMvc.perform(get("/api/cars").param("afterId", beforeFirstId.toString()).param("running", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cars[*].carId", contains(cars.get(1).getId().intValue(), cars.get(3).getId().intValue())));
+
+        mockMvc.perform(get("/api/cars").param("afterId", beforeFirstId.toString()).param("fuelBelow", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cars[*].carId", contains(cars.get(4).getId().intValue())))
+                .andExpect(jsonPath("$.cars[0].fuelLevel").value(3));
+    }
+
+    @Test
+    void listCars_whenLimitIsOutOfRange_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/cars").param("limit", "0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportCars_shouldWriteOneJsonLinePerCar() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/cars/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(jdbcTemplate.queryForObject("select count(*) from car", Integer.class), lines.length);
+        Car lastCar = cars.get(4);
+        assertEquals("{\"carId\":" + lastCar.getId() + ",\"engineRunning\":false,\"fuelLevel\":3}", lines[lines.length - 1]);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.car.controller;
+
+import com.example.car.entity.Engine;
+import com.example.car.messages.MessageCollector;
+import com.example.car.service.CarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConcurrentChangeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CarService carService;
+
+    @Test
+    void stopCar_whenRetriesAreExhausted_shouldReturnConflict() throws Exception {
+        when(carService.stopCar(1L)).thenThrow(new ObjectOptimisticLockingFailureException(Engine.class, 1L));
+
+        mockMvc.perform(post("/api/cars/{carId}/stop", 1L))
+                .andExpect(status().isConflict())
+                .andExpect(content().string(MessageCollector.CONCURRENT_CHANGE));
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.car.controller;
+
+import com.example.car.dto.CarCommand;
+import com.example.car.dto.CarCommandType;
+import com.example.car.dto.CarSummary;
+import com.example.car.entity.Car;
+import com.example.car.service.CarService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ContentNegotiationTest {
+
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Test
+    void refuelCar_withCborAccepted_shouldReturnCbor() throws Exception {
+        // Arrange
+        Car car = carService.createCar();
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/api/cars/{carId}/refuel", car.getId()).param("amount", "10")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        // Assert
+        JsonNode response = read(cborConverter.getObjectMapper(), result);
+        assertEquals(car.getId().longValue(), response.get("carId").asLong());
+        assertEquals(60, response.get("fuelLevel").asInt());
+    }
+
+    @Test
+    void refuelCar_withSmileAcceptedAndFieldsSelected_shouldReturnOnlyThoseFields() throws Exception {
+        // Arrange
+        Car car = carService.createCar();
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/api/cars/{carId}/refuel", car.getId()).param("amount", "10")
+                        .param("fields", "fuelLevel")
+                        .accept(APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_SMILE))
+                .andReturn();
+
+        // Assert
+        JsonNode response = read(smileConverter.getObjectMapper(), result);
+        assertEquals(1, response.size());
+        assertEquals(60, response.get("fuelLevel").asInt());
+    }
+
+    @Test
+    void stopCar_withoutAcceptHeader_shouldStayJson() throws Exception {
+        Car car = carService.createCar();
+
+        mockMvc.perform(post("/api/cars/{carId}/stop", car.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void executeBatch_withCborBody_shouldReadAndAnswerCbor() throws Exception {
+        // Arrange
+        Car car = carService.createCar();
+        ObjectMapper cbor = cborConverter.getObjectMapper();
+        byte[] commands = cbor.writeValueAsBytes(List.of(new CarCommand(car.getId(), CarCommandType.REFUEL, 5)));
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/api/cars/batch")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(commands))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        // Assert
+        JsonNode results = read(cbor, result);
+        assertEquals(1, results.size());
+        assertEquals(55, results.get(0).get("fuelLevel").asInt());
+    }
+
+    @Test
+    void exportCars_withCborSequenceAccepted_shouldWriteOneCborValuePerCar() throws Exception {
+        // Arrange
+        Car car = carService.createCar();
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/cars/export").accept(CarExportStream.APPLICATION_CBOR_SEQ_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        // Assert
+        assertEquals(CarExportStream.APPLICATION_CBOR_SEQ_VALUE, result.getResponse().getContentType());
+        boolean found = false;
+        try (MappingIterator<CarSummary> cars = cborConverter.getObjectMapper().readerFor(CarSummary.class)
+                .readValues(result.getResponse().getContentAsByteArray())) {
+            while (cars.hasNext()) {
+                CarSummary summary = cars.next();
+                found |= summary.getCarId().equals(car.getId()) && summary.getFuelLevel() == 50;
+            }
+        }
+        assertTrue(found);
+    }
+
+    private static JsonNode read(ObjectMapper objectMapper, MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    }
+}
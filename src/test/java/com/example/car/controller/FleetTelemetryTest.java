@@ -0,0 +1,59 @@
+package com.example.car.controller;
+
+import com.example.car.dto.FleetTelemetry;
+import com.example.car.entity.Car;
+import com.example.car.service.CarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class FleetTelemetryTest {
+
+    private static final int WINDOW_SECONDS = 3600;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarService carService;
+
+    @Test
+    void telemetry_shouldCountTheCommittedOperations() throws Exception {
+        // Arrange
+        Car car = carService.createCar();
+        FleetTelemetry before = carService.getFleetTelemetry(WINDOW_SECONDS);
+
+        // Act
+        mockMvc.perform(post("/api/cars/{carId}/refuel", car.getId()).param("amount", "10"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/cars/{carId}/start", car.getId()))
+                .andExpect(status().isOk());
+
+        // Assert
+        mockMvc.perform(get("/api/cars/telemetry").param("windowSeconds", String.valueOf(WINDOW_SECONDS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.windowSeconds").value(WINDOW_SECONDS))
+                .andExpect(jsonPath("$.fuelLevelBucketWidth").value(10))
+                .andExpect(jsonPath("$.fuelLevelCounts", hasSize(10)));
+        FleetTelemetry after = carService.getFleetTelemetry(WINDOW_SECONDS);
+        assertEquals(1, after.getStarts() - before.getStarts());
+        assertEquals(1, after.getRefuels() - before.getRefuels());
+        assertEquals(10, after.getRefueledLiters() - before.getRefueledLiters());
+    }
+
+    @Test
+    void telemetry_withWindowBeyondTheRetainedSeconds_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/cars/telemetry").param("windowSeconds", String.valueOf(WINDOW_SECONDS + 1)))
+                .andExpect(status().isBadRequest());
+    }
+}
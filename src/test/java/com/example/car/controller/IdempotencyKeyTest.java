@@ -0,0 +1,111 @@
+package com.example.car.controller;
+
+import com.example.car.dto.CarCommand;
+import com.example.car.dto.CarCommandType;
+import com.example.car.entity.Car;
+import com.example.car.service.CarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotencyKeyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarService carService;
+
+    @Test
+    void refuelCar_whenRetriedWithSameKey_shouldReturnRecordedResponseWithoutRefuelingAgain() throws Exception {
+        // Arrange
+        Car car = carService.createCar();
+        String key = UUID.randomUUID().toString();
+
+        // Act
+        String first = mockMvc.perform(post("/api/cars/{carId}/refuel", car.getId()).param("amount", "10")
+                        .header(IdempotentRequests.HEADER, key))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String retry = mockMvc.perform(post("/api/cars/{carId}/refuel", car.getId()).param("amount", "10")
+                        .header(IdempotentRequests.HEADER, key))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        assertEquals(first, retry);
+        assertEquals(60, carService.checkFuelLevel(car.getId()));
+    }
+
+    @Test
+    void startCar_whenRetriedWithSameKey_shouldConsumeFuelOnce() throws Exception {
+        // Arrange
+        Car car = carService.createCar();
+        String key = UUID.randomUUID().toString();
+
+        // Act
+        for (int attempt = 0; attempt < 3; attempt++) {
+            mockMvc.perform(post("/api/cars/{carId}/start", car.getId()).header(IdempotentRequests.HEADER, key))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.fuelLevel").value(45));
+        }
+
+        // Assert
+        assertEquals(45, carService.checkFuelLevel(car.getId()));
+    }
+
+    @Test
+    void refuelCar_whenKeyIsReusedForAnotherRequest_shouldReturnBadRequest() throws Exception {
+        // Arrange
+        Car car = carService.createCar();
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(post("/api/cars/{carId}/refuel", car.getId()).param("amount", "10")
+                        .header(IdempotentRequests.HEADER, key))
+                .andExpect(status().isOk());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/cars/{carId}/refuel", car.getId()).param("amount", "20")
+                        .header(IdempotentRequests.HEADER, key))
+                .andExpect(status().isBadRequest());
+        assertEquals(60, carService.checkFuelLevel(car.getId()));
+    }
+
+    @Test
+    void executeBatch_whenKeyIsReusedForABatchWithTheSameHashCode_shouldReturnBadRequest() throws Exception {
+        // Arrange
+        Car car = carService.createCar();
+        String key = UUID.randomUUID().toString();
+        List<CarCommand> first = List.of(new CarCommand(car.getId(), CarCommandType.REFUEL, 10),
+                new CarCommand(car.getId(), CarCommandType.REFUEL, 40));
+        List<CarCommand> other = List.of(new CarCommand(car.getId(), CarCommandType.REFUEL, 11),
+                new CarCommand(car.getId(), CarCommandType.REFUEL, 9));
+        assertEquals(first.hashCode(), other.hashCode());
+        mockMvc.perform(post("/api/cars/batch").contentType(MediaType.APPLICATION_JSON).content(batch(car, 10, 40))
+                        .header(IdempotentRequests.HEADER, key))
+                .andExpect(status().isOk());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/cars/batch").contentType(MediaType.APPLICATION_JSON).content(batch(car, 11, 9))
+                        .header(IdempotentRequests.HEADER, key))
+                .andExpect(status().isBadRequest());
+        assertNotEquals(IdempotentRequests.batch(first), IdempotentRequests.batch(other));
+        assertEquals(100, carService.checkFuelLevel(car.getId()));
+    }
+
+    private static String batch(Car car, int firstAmount, int secondAmount) {
+        return "[{\"carId\":" + car.getId() + ",\"type\":\"REFUEL\",\"amount\":" + firstAmount + "}," +
+                "{\"carId\":" + car.getId() + ",\"type\":\"REFUEL\",\"amount\":" + secondAmount + "}]";
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.car.controller;
+
+import com.example.car.entity.Car;
+import com.example.car.exceptions.CarNotFoundException;
+import com.example.car.service.CarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=prometheus")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarService carService;
+
+    @Test
+    void prometheus_shouldExposeEndpointServiceRepositoryAndBusinessMeters() throws Exception {
+        Car car = carService.createCar();
+        mockMvc.perform(post("/api/cars/{carId}/refuel", car.getId()).param("amount", "10")).andExpect(status().isOk());
+        assertThrows(CarNotFoundException.class, () -> carService.checkFuelLevel(Long.MAX_VALUE));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("uri=\"/api/cars/{carId}/refuel\"")))
+                .andExpect(content().string(containsString("car_service_seconds_bucket{")))
+                .andExpect(content().string(containsString("method=\"refuelCar\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString("car_failures_total{exception=\"CarNotFoundException\",}")))
+                .andExpect(content().string(containsString("car_engines_running ")));
+    }
+}
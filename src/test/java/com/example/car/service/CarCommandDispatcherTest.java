@@ -0,0 +1,115 @@
+package com.example.car.service;
+
+import com.example.car.exceptions.CarBusyException;
+import com.example.car.exceptions.CarNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarCommandDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CarCommandDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void submit_shouldRunCommandsOfOneCarInOrderOnOneThread() {
+        // Arrange
+        dispatcher = new CarCommandDispatcher(meterRegistry, 4, 1000);
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int command = i;
+            results.add(dispatcher.submit(7L, () -> {
+                executed.add(command);
+                threads.add(Thread.currentThread().getName());
+                return command;
+            }));
+        }
+        results.forEach(CompletableFuture::join);
+
+        // Assert
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, executed.get(i));
+        }
+        assertEquals(1, threads.stream().distinct().count());
+    }
+
+    @Test
+    void submit_shouldRunDifferentShardsInParallel() throws InterruptedException {
+        // Arrange
+        dispatcher = new CarCommandDispatcher(meterRegistry, 2, 10);
+        assertNotEquals(dispatcher.shardOf(1L), dispatcher.shardOf(2L));
+        CountDownLatch bothRunning = new CountDownLatch(2);
+
+        // Act, each command only finishes once the other one has started
+        CompletableFuture<Boolean> first = dispatcher.submit(1L, () -> awaitOther(bothRunning));
+        CompletableFuture<Boolean> second = dispatcher.submit(2L, () -> awaitOther(bothRunning));
+
+        // Assert
+        assertTrue(first.join());
+        assertTrue(second.join());
+    }
+
+    @Test
+    void submit_whenMailboxIsFull_shouldRejectWithCarBusy() {
+        // Arrange
+        dispatcher = new CarCommandDispatcher(meterRegistry, 1, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        dispatcher.submit(1L, () -> {
+            running.countDown();
+            return await(release);
+        });
+        assertTrue(await(running));
+        dispatcher.submit(1L, () -> true);
+        dispatcher.submit(1L, () -> true);
+
+        // Act & Assert
+        assertThrows(CarBusyException.class, () -> dispatcher.submit(1L, () -> true));
+        assertEquals(2, meterRegistry.get("car.dispatcher.mailbox.depth").tag("shard", "0").gauge().value());
+        assertEquals(1, meterRegistry.get("car.dispatcher.rejected").tag("shard", "0").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    void execute_shouldRethrowTheExceptionOfTheCommand() {
+        // Arrange
+        dispatcher = new CarCommandDispatcher(meterRegistry, 1, 10);
+
+        // Act & Assert
+        assertThrows(CarNotFoundException.class, () -> dispatcher.execute(1L, () -> {
+            throw new CarNotFoundException();
+        }));
+    }
+
+    private static boolean awaitOther(CountDownLatch bothRunning) {
+        bothRunning.countDown();
+        return await(bothRunning);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
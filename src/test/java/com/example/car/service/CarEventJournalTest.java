@@ -0,0 +1,118 @@
+package com.example.car.service;
+
+import com.example.car.dto.CarEventType;
+import com.example.car.entity.Car;
+import com.example.car.exceptions.EngineFailureException;
+import com.example.car.messages.MessageCollector;
+import com.example.car.repository.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "car.event-sourcing.enabled=true",
+        "car.event-sourcing.journal-flush-interval-ms=600000",
+        "car.write-behind.flush-interval-ms=600000"
+})
+class CarEventJournalTest {
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarStateStore carStateStore;
+
+    @Autowired
+    private CarEventJournal carEventJournal;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private EngineFailureModel engineFailureModel;
+
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        when(engineFailureModel.canStart(any())).thenReturn(true);
+        car = carService.createCar();
+    }
+
+    @Test
+    void operations_shouldAppendEventsInsteadOfUpdatingRows() {
+        // Act
+        carService.startCar(car.getId());
+        carService.refuelCar(car.getId(), 10);
+        carService.stopCar(car.getId());
+        carEventJournal.flush();
+
+        // Assert
+        assertEquals(List.of(CarEventType.CAR_STARTED.getCode(), CarEventType.REFUELED.getCode(), CarEventType.CAR_STOPPED.getCode()),
+                jdbcTemplate.queryForList("select type from car_event where car_id = ? order by seq", Integer.class, car.getId()));
+        assertEquals(List.of(-5, 10, 0),
+                jdbcTemplate.queryForList("select fuel_delta from car_event where car_id = ? order by seq", Integer.class, car.getId()));
+        assertEquals(50, fuelLevelInDatabase());
+    }
+
+    @Test
+    void startCar_whenEngineFails_shouldJournalTheFailure() {
+        // Arrange
+        when(engineFailureModel.canStart(any())).thenReturn(false);
+
+        // Act
+        assertThrows(EngineFailureException.class, () -> carService.startCar(car.getId()));
+        carEventJournal.flush();
+
+        // Assert
+        assertEquals(List.of(CarEventType.ENGINE_FAILED.getCode()),
+                jdbcTemplate.queryForList("select type from car_event where car_id = ?", Integer.class, car.getId()));
+        assertFalse(carService.checkIsEngineRunning(car.getId()));
+    }
+
+    @Test
+    void newStore_shouldRebuildCarFromSnapshotAndEventTail() {
+        // Arrange
+        carService.startCar(car.getId());
+        carService.refuelCar(car.getId(), 20);
+        carStateStore.flush();
+        carService.stopCar(car.getId());
+        carService.refuelCar(car.getId(), 5);
+        carEventJournal.flush();
+
+        // Act
+        CarStateStore restartedStore = new CarStateStore(carRepository, jdbcTemplate, transactionTemplate,
+                Optional.of(carEventJournal), 600_000, 500, 100, 16);
+        Car rebuilt = restartedStore.read(car.getId(), loaded -> loaded).orElseThrow();
+
+        // Assert
+        assertEquals(2, jdbcTemplate.queryForObject("select event_seq from car where id = ?", Long.class, car.getId()));
+        assertEquals(65, fuelLevelInDatabase());
+        assertEquals(4, rebuilt.getEventSeq());
+        assertFalse(rebuilt.getEngine().isRunning());
+        assertEquals(1, rebuilt.getEngine().getStartCount());
+        assertEquals(70, rebuilt.getFuelTank().getFuelLevel());
+        assertEquals(MessageCollector.carRefueled(5, 70), rebuilt.getDashboard().getCurrentMessage());
+    }
+
+    private int fuelLevelInDatabase() {
+        return jdbcTemplate.queryForObject("select fuel_level from fuel_tank where id = ?", Integer.class, car.getFuelTank().getId());
+    }
+}
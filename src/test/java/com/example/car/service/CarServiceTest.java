@@ -1,12 +1,22 @@
 package com.example.car.service;
 
+import com.example.car.dto.CarCommand;
+import com.example.car.dto.CarCommandResult;
+import com.example.car.dto.CarCommandType;
+import com.example.car.dto.DashboardEvent;
+import com.example.car.dto.EngineStatusView;
+import com.example.car.dto.FuelLevelView;
+import com.example.car.dto.StartResult;
 import com.example.car.entity.Car;
 import com.example.car.entity.Dashboard;
 import com.example.car.entity.Engine;
 import com.example.car.entity.FuelTank;
 import com.example.car.exceptions.CarNotFoundException;
+import com.example.car.exceptions.EngineFailureException;
+import com.example.car.exceptions.FuelEmptyException;
 import com.example.car.messages.MessageCollector;
 import com.example.car.repository.CarRepository;
+import com.example.car.repository.FuelTankRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -17,6 +27,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,16 +39,31 @@ class CarServiceTest {
     @MockBean
     private CarRepository carRepository;
 
+    @MockBean
+    private FuelTankRepository fuelTankRepository;
+
+    @MockBean
+    private EngineFailureModel engineFailureModel;
+
+    @MockBean
+    private DashboardEventChannel dashboardEventChannel;
+
     @Mock
     private Logger logger = LoggerFactory.getLogger(CarService.class);
 
     @Autowired
     private CarService carService;
 
+    @Autowired
+    private CarStatusCache carStatusCache;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-
+        carStatusCache.invalidateAll();
+        when(fuelTankRepository.consumeFuel(any(), anyInt())).thenReturn(1);
+        when(fuelTankRepository.addFuel(any(), anyInt())).thenReturn(1);
+        when(engineFailureModel.canStart(any())).thenReturn(true);
     }
 
     @Test
@@ -57,46 +83,133 @@ class CarServiceTest {
         verify(carRepository, times(1)).saveAndFlush(any(Car.class));
     }
 
+    @Test
+    void createCars_shouldPersistAllCarsInOneCall() {
+        // Act
+        carService.createCars(3);
+
+        // Assert
+        verify(carRepository, times(1)).persistAll(argThat(cars -> cars.size() == 3
+                && cars.stream().allMatch(car -> car.getEngine() != null && car.getFuelTank() != null && car.getDashboard() != null)));
+        verify(carRepository, never()).saveAndFlush(any(Car.class));
+    }
+
+    @Test
+    void createCars_whenCountIsNotPositive_shouldThrowIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> carService.createCars(0));
+        verify(carRepository, never()).persistAll(anyList());
+    }
+
     @Test
     void startCar_whenCarExists_shouldStartCar() {
         // Arrange
         Long carId = 1L;
         Car car = createTestCar();
-        when(carRepository.findById(carId)).thenReturn(Optional.of(car));
+        when(carRepository.findWithPartsById(carId)).thenReturn(Optional.of(car));
 
         // Act
         carService.startCar(carId);
 
         // Assert
         assertTrue(car.getEngine().isRunning());
-        verify(carRepository, times(1)).findById(carId);
+        assertEquals(1, car.getEngine().getStartCount());
+        verify(carRepository, times(1)).findWithPartsById(carId);
         verify(logger, never()).error(anyString());
         assertEquals(MessageCollector.CAR_STARTED, car.getDashboard().getCurrentMessage());
+        verify(dashboardEventChannel, times(1)).publish(new DashboardEvent(carId, MessageCollector.CAR_STARTED));
     }
 
     @Test
     void startCar_whenCarDoesNotExist_shouldLogAndThrowCarNotFoundException() {
         // Arrange
         Long carId = 1L;
-        when(carRepository.findById(carId)).thenReturn(Optional.empty());
+        when(carRepository.findWithPartsById(carId)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(CarNotFoundException.class, () -> carService.startCar(carId));
     }
 
+    @Test
+    void startCar_whenFuelUpdateMatchesNoRow_shouldThrowFuelEmptyException() {
+        // Arrange
+        Long carId = 1L;
+        Car car = createTestCar();
+        when(carRepository.findWithPartsById(carId)).thenReturn(Optional.of(car));
+        when(fuelTankRepository.consumeFuel(any(), anyInt())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(FuelEmptyException.class, () -> carService.startCar(carId));
+        assertFalse(car.getEngine().isRunning());
+        assertEquals(50, car.getFuelTank().getFuelLevel());
+    }
+
+    @Test
+    void startCar_whenEngineFails_shouldThrowEngineFailureWithoutConsumingFuel() {
+        // Arrange
+        Long carId = 1L;
+        Car car = createTestCar();
+        when(carRepository.findWithPartsById(carId)).thenReturn(Optional.of(car));
+        when(engineFailureModel.canStart(any())).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(EngineFailureException.class, () -> carService.startCar(carId));
+        assertFalse(car.getEngine().isRunning());
+        assertEquals(0, car.getEngine().getStartCount());
+        verify(fuelTankRepository, never()).consumeFuel(any(), anyInt());
+    }
+
+    @Test
+    void tryStartCar_whenCarExists_shouldReturnStartedCar() {
+        // Arrange
+        Long carId = 1L;
+        Car car = createTestCar();
+        when(carRepository.findWithPartsById(carId)).thenReturn(Optional.of(car));
+
+        // Act
+        StartResult result = carService.tryStartCar(carId);
+
+        // Assert
+        assertEquals(StartResult.Reason.OK, result.getReason());
+        assertSame(car, result.getCar());
+        assertTrue(car.getEngine().isRunning());
+    }
+
+    @Test
+    void tryStartCar_whenStartFails_shouldReturnReasonInsteadOfThrowing() {
+        // Arrange
+        Car car = createTestCar();
+        when(carRepository.findWithPartsById(1L)).thenReturn(Optional.of(car));
+        when(carRepository.findWithPartsById(2L)).thenReturn(Optional.empty());
+        when(fuelTankRepository.consumeFuel(any(), anyInt())).thenReturn(0);
+
+        // Act
+        StartResult noFuel = carService.tryStartCar(1L);
+        when(engineFailureModel.canStart(any())).thenReturn(false);
+        StartResult engineFailure = carService.tryStartCar(1L);
+        StartResult notFound = carService.tryStartCar(2L);
+
+        // Assert
+        assertEquals(StartResult.Reason.NO_FUEL, noFuel.getReason());
+        assertEquals(StartResult.Reason.ENGINE_FAILURE, engineFailure.getReason());
+        assertEquals(StartResult.Reason.NOT_FOUND, notFound.getReason());
+        assertNull(noFuel.getCar());
+        assertFalse(car.getEngine().isRunning());
+    }
+
     @Test
     void stopCar_whenCarExists_shouldStopCar() {
         // Arrange
         Long carId = 1L;
         Car car = createTestCar(); // Use a mock Car object
-        when(carRepository.findById(carId)).thenReturn(Optional.of(car));
+        when(carRepository.findWithPartsById(carId)).thenReturn(Optional.of(car));
 
         // Act
         carService.stopCar(carId);
 
         // Assert
         assertFalse(car.getEngine().isRunning());
-        verify(carRepository, times(1)).findById(carId);
+        verify(carRepository, times(1)).findWithPartsById(carId);
         verify(logger, never()).error(anyString());
         assertEquals(MessageCollector.CAR_STOPPED, car.getDashboard().getCurrentMessage());
     }
@@ -105,7 +218,7 @@ class CarServiceTest {
     void stopCar_whenCarDoesNotExist_shouldLogAndThrowCarNotFoundException() {
         // Arrange
         Long carId = 1L;
-        when(carRepository.findById(carId)).thenReturn(Optional.empty());
+        when(carRepository.findWithPartsById(carId)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(CarNotFoundException.class, () -> carService.stopCar(carId));
@@ -118,24 +231,48 @@ class CarServiceTest {
         int fuelAmount = 20;
         Car car = createTestCar(); // Use a mock Car object
         int startingFuelAmount = car.getFuelTank().getFuelLevel();
-        when(carRepository.findById(carId)).thenReturn(Optional.of(car));
+        when(carRepository.findWithPartsById(carId)).thenReturn(Optional.of(car));
+        // The level is read back after the UPDATE
+        when(fuelTankRepository.findFuelLevelById(car.getFuelTank().getId())).thenReturn(startingFuelAmount + fuelAmount);
 
         // Act
         carService.refuelCar(carId, fuelAmount);
 
         // Assert
         assertEquals(car.getFuelTank().getFuelLevel() - fuelAmount, startingFuelAmount);
-        verify(carRepository, times(1)).findById(carId);
+        verify(carRepository, times(1)).findWithPartsById(carId);
+        verify(fuelTankRepository, times(1)).addFuel(car.getFuelTank().getId(), fuelAmount);
         verify(logger, never()).error(anyString());
         assertEquals(MessageCollector.carRefueled(fuelAmount, car.getFuelTank().getFuelLevel()),car.getDashboard().getCurrentMessage());
     }
 
+    @Test
+    void refuelCar_whenAmountIsNotPositive_shouldThrowIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> carService.refuelCar(1L, -20));
+        assertThrows(IllegalArgumentException.class, () -> carService.refuelCar(1L, 0));
+        verify(carRepository, never()).findWithPartsById(anyLong());
+        verify(fuelTankRepository, never()).addFuel(any(), anyInt());
+    }
+
+    @Test
+    void executeBatch_whenRefuelAmountIsNegative_shouldRejectBatch() {
+        // Arrange
+        List<CarCommand> commands = List.of(
+                new CarCommand(1L, CarCommandType.STOP, 0),
+                new CarCommand(1L, CarCommandType.REFUEL, -20));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> carService.executeBatch(commands));
+        verify(carRepository, never()).findAllWithPartsByIdIn(anyCollection());
+    }
+
     @Test
     void refuelCar_whenCarDoesNotExist_shouldLogAndThrowCarNotFoundException() {
         // Arrange
         Long carId = 1L;
         int fuelAmount = 20;
-        when(carRepository.findById(carId)).thenReturn(Optional.empty());
+        when(carRepository.findWithPartsById(carId)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(CarNotFoundException.class, () -> carService.refuelCar(carId, fuelAmount));
@@ -145,10 +282,7 @@ class CarServiceTest {
     void checkIsEngineRunning_whenEngineIsRunning_shouldReturnTrueAndLog() {
         // Arrange
         Long carId = 1L;
-        Car car = createTestCar();
-        car.getEngine().setRunning(true);
-
-        when(carRepository.findById(carId)).thenReturn(Optional.of(car));
+        when(carRepository.findEngineStatusById(carId)).thenReturn(Optional.of(new EngineStatusView(2L, true)));
 
         // Act
         boolean isEngineRunning = carService.checkIsEngineRunning(carId);
@@ -156,18 +290,15 @@ class CarServiceTest {
         // Assert
         assertTrue(isEngineRunning);
         verify(logger, never()).error(anyString());
-        assertEquals(MessageCollector.ENGINE_IS_RUNNING,car.getDashboard().getCurrentMessage());
+        verify(carRepository, never()).findWithPartsById(anyLong());
+        verify(dashboardEventChannel, times(1)).publish(new DashboardEvent(carId, MessageCollector.ENGINE_IS_RUNNING));
     }
 
     @Test
     void checkIsEngineRunning_whenEngineIsNotRunning_shouldReturnFalseAndLog() {
         // Arrange
         Long carId = 1L;
-        Car car = createTestCar();
-        car.getEngine().setRunning(false);
-
-
-        when(carRepository.findById(carId)).thenReturn(Optional.of(car));
+        when(carRepository.findEngineStatusById(carId)).thenReturn(Optional.of(new EngineStatusView(2L, false)));
 
         // Act
         boolean isEngineRunning = carService.checkIsEngineRunning(carId);
@@ -175,14 +306,14 @@ class CarServiceTest {
         // Assert
         assertFalse(isEngineRunning);
         verify(logger, never()).error(anyString());
-        assertEquals(MessageCollector.ENGINE_IS_NOT_RUNNING,car.getDashboard().getCurrentMessage());
+        verify(dashboardEventChannel, times(1)).publish(new DashboardEvent(carId, MessageCollector.ENGINE_IS_NOT_RUNNING));
     }
 
     @Test
     void checkIsEngineRunning_whenCarDoesNotExist_shouldThrowCarNotFoundException() {
         // Arrange
         Long carId = 1L;
-        when(carRepository.findById(carId)).thenReturn(Optional.empty());
+        when(carRepository.findEngineStatusById(carId)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(CarNotFoundException.class, () -> carService.checkIsEngineRunning(carId));
@@ -192,28 +323,108 @@ class CarServiceTest {
     void checkFuelLevel_whenCarExists_shouldReturnFuelLevelAndLog() {
         // Arrange
         Long carId = 1L;
-        Car car = createTestCar();
-
-        when(carRepository.findById(carId)).thenReturn(Optional.of(car));
+        when(carRepository.findFuelLevelById(carId)).thenReturn(Optional.of(new FuelLevelView(2L, 50)));
 
         // Act
         int fuelLevel = carService.checkFuelLevel(carId);
 
         // Assert
         assertEquals(50, fuelLevel);
-        assertEquals(MessageCollector.carFuelLevel(carId, 50), car.getDashboard().getCurrentMessage());
+        verify(carRepository, never()).findWithPartsById(anyLong());
+        verify(dashboardEventChannel, times(1)).publish(new DashboardEvent(carId, MessageCollector.carFuelLevel(carId, 50)));
     }
 
     @Test
     void checkFuelLevel_whenCarDoesNotExist_shouldThrowCarNotFoundException() {
         // Arrange
         Long carId = 1L;
-        when(carRepository.findById(carId)).thenReturn(Optional.empty());
+        when(carRepository.findFuelLevelById(carId)).thenReturn(Optional.empty());
 
         // Act & Assert
        assertThrows(CarNotFoundException.class, () -> carService.checkFuelLevel(carId));
     }
 
+    @Test
+    void checkFuelLevel_whenCalledAgain_shouldReadFromCache() {
+        // Arrange
+        Long carId = 1L;
+        when(carRepository.findFuelLevelById(carId)).thenReturn(Optional.of(new FuelLevelView(2L, 50)));
+
+        // Act
+        carService.checkFuelLevel(carId);
+        int fuelLevel = carService.checkFuelLevel(carId);
+
+        // Assert
+        assertEquals(50, fuelLevel);
+        verify(carRepository, times(1)).findFuelLevelById(carId);
+    }
+
+    @Test
+    void refuelCar_shouldInvalidateCachedFuelLevel() {
+        // Arrange
+        Long carId = 1L;
+        Car car = createTestCar();
+        when(carRepository.findWithPartsById(carId)).thenReturn(Optional.of(car));
+        when(carRepository.findFuelLevelById(carId))
+                .thenReturn(Optional.of(new FuelLevelView(2L, 50)))
+                .thenReturn(Optional.of(new FuelLevelView(2L, 70)));
+
+        // Act
+        carService.checkFuelLevel(carId);
+        carService.refuelCar(carId, 20);
+        int fuelLevel = carService.checkFuelLevel(carId);
+
+        // Assert
+        assertEquals(70, fuelLevel);
+        verify(carRepository, times(2)).findFuelLevelById(carId);
+    }
+
+    @Test
+    void executeBatch_shouldApplyCommandsInOrderAndReportMissingCars() {
+        // Arrange
+        Car car = createTestCar();
+        when(carRepository.findAllWithPartsByIdIn(anyCollection())).thenReturn(List.of(car));
+        List<CarCommand> commands = List.of(
+                new CarCommand(1L, CarCommandType.REFUEL, 20),
+                new CarCommand(2L, CarCommandType.STOP, 0),
+                new CarCommand(1L, CarCommandType.STOP, 0));
+
+        // Act
+        List<CarCommandResult> results = carService.executeBatch(commands);
+
+        // Assert
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(70, results.get(0).getFuelLevel());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals(CarNotFoundException.class.getSimpleName(), results.get(1).getError());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals(MessageCollector.CAR_STOPPED, car.getDashboard().getCurrentMessage());
+        verify(carRepository, times(1)).findAllWithPartsByIdIn(anyCollection());
+        verify(carRepository, never()).findWithPartsById(anyLong());
+    }
+
+    @Test
+    void executeBatch_whenFuelIsEmpty_shouldReportFailureAndContinue() {
+        // Arrange
+        Car car = createTestCar();
+        car.getFuelTank().setFuelLevel(0);
+        when(carRepository.findAllWithPartsByIdIn(anyCollection())).thenReturn(List.of(car));
+        when(fuelTankRepository.consumeFuel(any(), anyInt())).thenReturn(0);
+        List<CarCommand> commands = List.of(
+                new CarCommand(1L, CarCommandType.START, 0),
+                new CarCommand(1L, CarCommandType.REFUEL, 10));
+
+        // Act
+        List<CarCommandResult> results = carService.executeBatch(commands);
+
+        // Assert
+        assertFalse(results.get(0).isSuccess());
+        assertFalse(car.getEngine().isRunning());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(10, car.getFuelTank().getFuelLevel());
+    }
+
     private Car createTestCar(){
         Car car = new Car();
         car.setId(1L);
@@ -0,0 +1,260 @@
+package com.example.car.service;
+
+import com.example.car.dto.CarResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarStateEventBusTest {
+
+    private CarStateEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        bus.stopSenders();
+    }
+
+    @Test
+    void carSubscriber_shouldOnlyReceiveChangesOfItsCar() throws InterruptedException {
+        // Arrange
+        bus = newBus(true, CarStateEventBus.OverflowPolicy.DROP_OLDEST);
+        List<CarResponse> received = new CopyOnWriteArrayList<>();
+        List<CarResponse> fleetReceived = new CopyOnWriteArrayList<>();
+        bus.subscribe(1L, received::add);
+        bus.subscribe(null, fleetReceived::add);
+
+        // Act
+        bus.publish(state(2L, 40));
+        bus.publish(state(1L, 45));
+
+        // Assert
+        awaitSize(fleetReceived, 2);
+        awaitSize(received, 1);
+        assertEquals(List.of(state(1L, 45)), received);
+        assertEquals(List.of(state(2L, 40), state(1L, 45)), fleetReceived);
+    }
+
+    @Test
+    void coalescing_shouldOnlyDeliverTheLatestPendingStateOfACar() throws InterruptedException {
+        // Arrange
+        bus = newBus(true, CarStateEventBus.OverflowPolicy.DROP_OLDEST);
+        BlockingConsumer consumer = new BlockingConsumer();
+        bus.subscribe(1L, consumer);
+
+        // Act, the first change holds the sender while the next ones are buffered
+        bus.publish(state(1L, 45));
+        consumer.awaitFirst();
+        bus.publish(state(1L, 40));
+        bus.publish(state(1L, 35));
+        bus.publish(state(1L, 30));
+        consumer.release();
+
+        // Assert
+        awaitSize(consumer.received, 2);
+        assertEquals(List.of(state(1L, 45), state(1L, 30)), consumer.received);
+    }
+
+    @Test
+    void fullBuffer_withDropOldest_shouldKeepTheNewestChanges() throws InterruptedException {
+        // Arrange, without coalescing every change takes a place in the buffer of two
+        bus = newBus(false, CarStateEventBus.OverflowPolicy.DROP_OLDEST);
+        BlockingConsumer consumer = new BlockingConsumer();
+        bus.subscribe(null, consumer);
+
+        // Act
+        bus.publish(state(1L, 45));
+        consumer.awaitFirst();
+        bus.publish(state(2L, 40));
+        bus.publish(state(3L, 35));
+        bus.publish(state(4L, 30));
+        consumer.release();
+
+        // Assert
+        awaitSize(consumer.received, 3);
+        assertEquals(List.of(state(1L, 45), state(3L, 35), state(4L, 30)), consumer.received);
+    }
+
+    @Test
+    void fullBuffer_withDropNewest_shouldKeepTheOldestChanges() throws InterruptedException {
+        // Arrange
+        bus = newBus(false, CarStateEventBus.OverflowPolicy.DROP_NEWEST);
+        BlockingConsumer consumer = new BlockingConsumer();
+        bus.subscribe(null, consumer);
+
+        // Act
+        bus.publish(state(1L, 45));
+        consumer.awaitFirst();
+        bus.publish(state(2L, 40));
+        bus.publish(state(3L, 35));
+        bus.publish(state(4L, 30));
+        consumer.release();
+
+        // Assert
+        awaitSize(consumer.received, 3);
+        assertEquals(List.of(state(1L, 45), state(2L, 40), state(3L, 35)), consumer.received);
+    }
+
+    @Test
+    void failingSubscriber_shouldBeCancelled() throws InterruptedException {
+        // Arrange
+        bus = newBus(true, CarStateEventBus.OverflowPolicy.DROP_OLDEST);
+        CountDownLatch failed = new CountDownLatch(1);
+        bus.subscribe(1L, state -> {
+            failed.countDown();
+            throw new IllegalStateException("client gone");
+        });
+        assertEquals(1, bus.getSubscriberCount());
+
+        // Act
+        bus.publish(state(1L, 45));
+
+        // Assert
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bus.getSubscriberCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, bus.getSubscriberCount());
+    }
+
+    @Test
+    void offerInitial_whenAChangeIsPending_shouldBeSkipped() throws InterruptedException {
+        // Arrange
+        bus = newBus(true, CarStateEventBus.OverflowPolicy.DROP_OLDEST);
+        BlockingConsumer consumer = new BlockingConsumer();
+        CarStateEventBus.Subscription subscription = bus.subscribe(1L, consumer);
+        bus.publish(state(1L, 45));
+        consumer.awaitFirst();
+        bus.publish(state(1L, 40));
+
+        // Act, the state read when subscribing is older than the pending change
+        subscription.offerInitial(state(1L, 50));
+        consumer.release();
+
+        // Assert
+        awaitSize(consumer.received, 2);
+        assertEquals(List.of(state(1L, 45), state(1L, 40)), consumer.received);
+    }
+
+    @Test
+    void offerInitial_whenAChangeWasAlreadySent_shouldBeSkipped() throws InterruptedException {
+        // Arrange
+        bus = newBus(true, CarStateEventBus.OverflowPolicy.DROP_OLDEST);
+        List<CarResponse> received = new CopyOnWriteArrayList<>();
+        CarStateEventBus.Subscription subscription = bus.subscribe(1L, received::add);
+        bus.publish(state(1L, 45));
+        awaitSize(received, 1);
+
+        // Act, the state read when subscribing is older than the change that was sent meanwhile
+        subscription.offerInitial(state(1L, 50));
+
+        // Assert
+        awaitSize(received, 2);
+        assertEquals(List.of(state(1L, 45)), received);
+    }
+
+    @Test
+    void offerInitial_withoutChanges_shouldBeSent() throws InterruptedException {
+        // Arrange
+        bus = newBus(true, CarStateEventBus.OverflowPolicy.DROP_OLDEST);
+        List<CarResponse> received = new CopyOnWriteArrayList<>();
+        CarStateEventBus.Subscription subscription = bus.subscribe(1L, received::add);
+
+        // Act
+        subscription.offerInitial(state(1L, 50));
+
+        // Assert
+        awaitSize(received, 1);
+        assertEquals(List.of(state(1L, 50)), received);
+    }
+
+    @Test
+    void publish_whenCommitsCompleteOutOfOrder_shouldDropTheOutdatedState() throws InterruptedException {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        bus = new CarStateEventBus(meterRegistry, 1, 2, true, CarStateEventBus.OverflowPolicy.DROP_OLDEST);
+        List<CarResponse> received = new CopyOnWriteArrayList<>();
+        List<CarResponse> fleetReceived = new CopyOnWriteArrayList<>();
+        bus.subscribe(1L, received::add);
+        bus.subscribe(null, fleetReceived::add);
+        List<TransactionSynchronization> older = publishInTransaction(state(1L, 45));
+        List<TransactionSynchronization> newer = publishInTransaction(state(1L, 40));
+
+        // Act, the newer change runs its after commit callbacks first
+        TransactionSynchronizationUtils.invokeAfterCommit(newer);
+        TransactionSynchronizationUtils.invokeAfterCommit(older);
+        bus.publish(state(2L, 30));
+
+        // Assert
+        awaitSize(fleetReceived, 2);
+        assertEquals(List.of(state(1L, 40)), received);
+        assertEquals(List.of(state(1L, 40), state(2L, 30)), fleetReceived);
+        assertEquals(1.0, meterRegistry.counter("car.events.outdated").count());
+    }
+
+    // Publishes in a transaction of its own and returns its callbacks, so the test decides when it commits
+    private List<TransactionSynchronization> publishInTransaction(CarResponse state) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bus.publish(state);
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static CarStateEventBus newBus(boolean coalesce, CarStateEventBus.OverflowPolicy overflowPolicy) {
+        return new CarStateEventBus(new SimpleMeterRegistry(), 1, 2, coalesce, overflowPolicy);
+    }
+
+    private static CarResponse state(Long carId, int fuelLevel) {
+        return new CarResponse(carId, true, fuelLevel, null);
+    }
+
+    private static void awaitSize(List<CarResponse> received, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // a short grace period, so a change that should not arrive has the chance to show up
+        Thread.sleep(50);
+    }
+
+    // Holds the sender thread in the first change until released
+    private static final class BlockingConsumer implements Consumer<CarResponse> {
+
+        private final List<CarResponse> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch first = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void accept(CarResponse state) {
+            received.add(state);
+            first.countDown();
+            try {
+                released.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void awaitFirst() throws InterruptedException {
+            assertTrue(first.await(5, TimeUnit.SECONDS));
+        }
+
+        void release() {
+            released.countDown();
+        }
+    }
+}
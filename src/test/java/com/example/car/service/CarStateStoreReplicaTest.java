@@ -0,0 +1,72 @@
+package com.example.car.service;
+
+import com.example.car.entity.Car;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Copies the primary into the replica once and then only writes to the primary, so the replica lags behind.
+ * The cars are not in the store yet, the checks load them inside their read-only transactions.
+ */
+@SpringBootTest(properties = {
+        "car.write-behind.enabled=true",
+        "car.write-behind.flush-interval-ms=600000",
+        "car.datasource.replica.url=jdbc:h2:mem:car_store_stale_replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "car.datasource.replica.username=sa"
+})
+class CarStateStoreReplicaTest {
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarStateStore carStateStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        car = carService.createCar();
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("drop all objects");
+        new JdbcTemplate(primaryDataSource).queryForList("script", String.class).forEach(replica::execute);
+        jdbcTemplate.update("update fuel_tank set fuel_level = 70 where id = ?", car.getFuelTank().getId());
+    }
+
+    @Test
+    void checkFuelLevel_whenReplicaLags_shouldLoadTheCarFromThePrimary() {
+        // Act
+        int fuelLevel = carService.checkFuelLevel(car.getId());
+        carService.refuelCar(car.getId(), 10);
+        carStateStore.flush();
+
+        // Assert
+        assertEquals(70, fuelLevel);
+        assertEquals(80, jdbcTemplate.queryForObject("select fuel_level from fuel_tank where id = ?", Integer.class, car.getFuelTank().getId()));
+    }
+
+    @Test
+    void findCarState_whenReplicaLags_shouldLoadTheCarFromThePrimary() {
+        // Act & Assert
+        assertEquals(70, carService.findCarState(car.getId()).orElseThrow().getFuelLevel());
+    }
+}
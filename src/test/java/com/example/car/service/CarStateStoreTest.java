@@ -0,0 +1,66 @@
+package com.example.car.service;
+
+import com.example.car.entity.Car;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "car.write-behind.enabled=true",
+        "car.write-behind.flush-interval-ms=600000"
+})
+class CarStateStoreTest {
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarStateStore carStateStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        car = carService.createCar();
+    }
+
+    @Test
+    void refuelCar_shouldServeReadsFromMemoryUntilFlushed() {
+        // Act
+        carService.refuelCar(car.getId(), 10);
+        carService.refuelCar(car.getId(), 20);
+
+        // Assert
+        assertEquals(80, carService.checkFuelLevel(car.getId()));
+        assertEquals(50, fuelLevelInDatabase());
+
+        carStateStore.flush();
+        assertEquals(80, fuelLevelInDatabase());
+    }
+
+    @Test
+    void stopCar_shouldWriteEngineStateOnFlush() {
+        // Arrange
+        jdbcTemplate.update("update engine set running = true where id = ?", car.getEngine().getId());
+
+        // Act
+        Car stopped = carService.stopCar(car.getId());
+        carStateStore.flush();
+
+        // Assert
+        assertFalse(stopped.getEngine().isRunning());
+        assertFalse(jdbcTemplate.queryForObject("select running from engine where id = ?", Boolean.class, car.getEngine().getId()));
+        assertEquals(Boolean.FALSE, carService.checkIsEngineRunning(car.getId()));
+    }
+
+    private int fuelLevelInDatabase() {
+        return jdbcTemplate.queryForObject("select fuel_level from fuel_tank where id = ?", Integer.class, car.getFuelTank().getId());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.car.service;
+
+import com.example.car.entity.Car;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Copies the primary into the replica once and then only writes to the primary, so the replica lags behind.
+ */
+@SpringBootTest(properties = {
+        "car.datasource.replica.url=jdbc:h2:mem:car_stale_replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "car.datasource.replica.username=sa"
+})
+class CarStatusCacheReplicaTest {
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        car = carService.createCar();
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("drop all objects");
+        new JdbcTemplate(primaryDataSource).queryForList("script", String.class).forEach(replica::execute);
+    }
+
+    @Test
+    void checkFuelLevel_afterWriteWithLaggingReplica_shouldReturnNewValue() {
+        // Arrange
+        assertEquals(50, carService.checkFuelLevel(car.getId()));
+
+        // Act
+        carService.refuelCar(car.getId(), 10);
+
+        // Assert
+        assertEquals(50, fuelLevelInReadOnlyTransaction());
+        assertEquals(60, carService.checkFuelLevel(car.getId()));
+    }
+
+    @Test
+    void checkIsEngineRunning_afterWriteWithLaggingReplica_shouldReturnNewValue() {
+        // Arrange
+        assertFalse(carService.checkIsEngineRunning(car.getId()));
+
+        // Act
+        carService.startCar(car.getId());
+
+        // Assert
+        assertTrue(carService.checkIsEngineRunning(car.getId()));
+    }
+
+    // Plain read-only transactions still read the lagging replica
+    private Integer fuelLevelInReadOnlyTransaction() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> jdbcTemplate.queryForObject(
+                "select fuel_level from fuel_tank where id = ?", Integer.class, car.getFuelTank().getId()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.car.service;
+
+import com.example.car.dto.DashboardEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardEventChannelTest {
+
+    private DashboardEventChannel channel;
+
+    @AfterEach
+    void tearDown() {
+        channel.stopDispatcher();
+    }
+
+    @Test
+    void publish_shouldDeliverEventsToSubscribers() throws InterruptedException {
+        // Arrange
+        channel = new DashboardEventChannel(new SimpleMeterRegistry(), 10);
+        BlockingQueue<DashboardEvent> received = new ArrayBlockingQueue<>(10);
+        channel.subscribe(received::add);
+        channel.startDispatcher();
+
+        // Act
+        channel.publish(new DashboardEvent(1L, "Car started successfully."));
+
+        // Assert
+        assertEquals(new DashboardEvent(1L, "Car started successfully."), received.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void publish_insideTransaction_shouldOnlyDeliverCommittedEvents() throws InterruptedException {
+        // Arrange
+        channel = new DashboardEventChannel(new SimpleMeterRegistry(), 10);
+        BlockingQueue<DashboardEvent> received = new ArrayBlockingQueue<>(10);
+        channel.subscribe(received::add);
+        channel.startDispatcher();
+
+        // Act, one transaction rolls back and the next one commits
+        inTransaction(false, () -> channel.publish(new DashboardEvent(1L, "Car started successfully.")));
+        inTransaction(true, () -> channel.publish(new DashboardEvent(1L, "Car stopped.")));
+
+        // Assert
+        assertEquals(new DashboardEvent(1L, "Car stopped."), received.poll(5, TimeUnit.SECONDS));
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void publish_whenQueueIsFull_shouldDropEventsWithoutBlocking() {
+        // Arrange
+        channel = new DashboardEventChannel(new SimpleMeterRegistry(), 2);
+
+        // Act, the dispatcher is not started so nothing leaves the queue
+        for (long carId = 1; carId <= 5; carId++) {
+            channel.publish(new DashboardEvent(carId, "Car stopped."));
+        }
+
+        // Assert
+        assertEquals(3, channel.getDroppedEvents());
+    }
+
+    // Runs the work with transaction synchronization active and completes it like a commit or a rollback would
+    private static void inTransaction(boolean commit, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            if (commit) {
+                TransactionSynchronizationUtils.triggerAfterCommit();
+            }
+            TransactionSynchronizationUtils.triggerAfterCompletion(commit
+                    ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
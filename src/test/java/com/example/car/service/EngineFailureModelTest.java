@@ -0,0 +1,68 @@
+package com.example.car.service;
+
+import com.example.car.entity.Engine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineFailureModelTest {
+
+    @Test
+    void fixedProbabilityModel_withSameSeed_shouldFailTheSameStarts() {
+        // Arrange
+        EngineFailureModel first = new FixedProbabilityFailureModel(0.3, new SeededRandom(42));
+        EngineFailureModel second = new FixedProbabilityFailureModel(0.3, new SeededRandom(42));
+        Engine engine = new Engine();
+
+        // Act
+        List<Boolean> firstRun = new ArrayList<>();
+        List<Boolean> secondRun = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            firstRun.add(first.canStart(engine));
+            secondRun.add(second.canStart(engine));
+        }
+
+        // Assert
+        assertEquals(firstRun, secondRun);
+        long failures = firstRun.stream().filter(started -> !started).count();
+        assertTrue(failures > 200 && failures < 400, "unexpected number of failures: " + failures);
+    }
+
+    @Test
+    void fixedProbabilityModel_withZeroProbability_shouldAlwaysStart() {
+        // Arrange
+        EngineFailureModel model = new FixedProbabilityFailureModel(0, () -> 0.0);
+
+        // Act & Assert
+        assertTrue(model.canStart(new Engine()));
+    }
+
+    @Test
+    void wearBasedModel_shouldGrowWithStartsUpToTheMaximum() {
+        // Arrange
+        WearBasedFailureModel model = new WearBasedFailureModel(0.01, 0.001, 0.5, new SeededRandom(1));
+        Engine engine = new Engine();
+
+        // Act & Assert
+        assertEquals(0.01, model.failureProbability(engine), 1e-9);
+        engine.setStartCount(100);
+        assertEquals(0.11, model.failureProbability(engine), 1e-9);
+        engine.setStartCount(1_000_000);
+        assertEquals(0.5, model.failureProbability(engine), 1e-9);
+    }
+
+    @Test
+    void seededRandom_shouldStayWithinTheUnitInterval() {
+        // Arrange
+        SeededRandom random = new SeededRandom(7);
+
+        // Act & Assert
+        for (int i = 0; i < 10_000; i++) {
+            double value = random.getAsDouble();
+            assertTrue(value >= 0 && value < 1, "out of range: " + value);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.car.service;
+
+import com.example.car.dto.CarCommand;
+import com.example.car.dto.CarCommandResult;
+import com.example.car.dto.CarCommandType;
+import com.example.car.dto.StartResult;
+import com.example.car.entity.Car;
+import com.example.car.exceptions.EngineFailureException;
+import com.example.car.exceptions.FuelEmptyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers a single car from many threads at once, every fuel change must end up in the database exactly once.
+ */
+@SpringBootTest
+class FuelConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int CALLS_PER_THREAD = 25;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarStateEventBus carStateEventBus;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ExecutorService executor;
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        car = carService.createCar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void refuelCar_whenCalledConcurrently_shouldNotLoseUpdates() throws Exception {
+        // Arrange
+        Queue<Integer> returnedLevels = new ConcurrentLinkedQueue<>();
+        Queue<Integer> publishedLevels = new ConcurrentLinkedQueue<>();
+        CarStateEventBus.Subscription subscription = carStateEventBus.subscribe(car.getId(),
+                state -> publishedLevels.add(state.getFuelLevel()));
+
+        // Act
+        runConcurrently(() -> returnedLevels.add(carService.refuelCar(car.getId(), 1).getFuelTank().getFuelLevel()));
+
+        // Assert: every refuel reports the level it left, none of them a level another refuel reported as well
+        int expectedLevel = 50 + THREADS * CALLS_PER_THREAD;
+        assertEquals(expectedLevel, fuelLevelInDatabase());
+        assertEquals(IntStream.rangeClosed(51, expectedLevel).boxed().collect(Collectors.toList()),
+                returnedLevels.stream().sorted().collect(Collectors.toList()));
+        awaitPublished(publishedLevels, expectedLevel);
+        assertTrue(publishedLevels.stream().allMatch(level -> level > 50 && level <= expectedLevel));
+        assertEquals(publishedLevels.size(), new HashSet<>(publishedLevels).size());
+        // Refuels only raise the level, a change committed after a newer one was sent must not reach the subscriber
+        assertEquals(publishedLevels.stream().sorted().collect(Collectors.toList()), new ArrayList<>(publishedLevels));
+        subscription.cancel();
+    }
+
+    @Test
+    void startCar_whenCalledConcurrently_shouldNeverOverdrawTheTank() throws Exception {
+        // Arrange
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger outOfFuel = new AtomicInteger();
+        Queue<Integer> returnedLevels = new ConcurrentLinkedQueue<>();
+
+        // Act
+        runConcurrently(() -> {
+            try {
+                returnedLevels.add(carService.startCar(car.getId()).getFuelTank().getFuelLevel());
+                started.incrementAndGet();
+            } catch (FuelEmptyException e) {
+                outOfFuel.incrementAndGet();
+            } catch (EngineFailureException e) {
+                // the engine randomly refuses to start, no fuel is consumed then
+            }
+        });
+
+        // Assert: a full tank of 50 liters is enough for exactly 10 starts of 5 liters each
+        assertEquals(10, started.get());
+        assertTrue(outOfFuel.get() > 0);
+        assertEquals(0, fuelLevelInDatabase());
+        assertEquals(List.of(0, 5, 10, 15, 20, 25, 30, 35, 40, 45), returnedLevels.stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    void executeBatch_whenCalledConcurrentlyWithStarts_shouldNeverOverdrawTheTank() throws Exception {
+        // Arrange
+        AtomicInteger started = new AtomicInteger();
+        Queue<Integer> returnedLevels = new ConcurrentLinkedQueue<>();
+        List<CarCommand> commands = List.of(
+                new CarCommand(car.getId(), CarCommandType.START, 0),
+                new CarCommand(car.getId(), CarCommandType.START, 0));
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act, every other call starts the car twice in one batch
+        runConcurrently(() -> {
+            if (calls.incrementAndGet() % 2 == 0) {
+                carService.executeBatch(commands).stream()
+                        .filter(CarCommandResult::isSuccess)
+                        .forEach(result -> {
+                            returnedLevels.add(result.getFuelLevel());
+                            started.incrementAndGet();
+                        });
+            } else {
+                StartResult result = carService.tryStartCar(car.getId());
+                if (result.isStarted()) {
+                    returnedLevels.add(result.getCar().getFuelTank().getFuelLevel());
+                    started.incrementAndGet();
+                }
+            }
+        });
+
+        // Assert
+        assertEquals(10, started.get());
+        assertEquals(0, fuelLevelInDatabase());
+        assertEquals(10, jdbcTemplate.queryForObject("select start_count from engine where id = ?", Long.class, car.getEngine().getId()));
+        assertEquals(List.of(0, 5, 10, 15, 20, 25, 30, 35, 40, 45), returnedLevels.stream().sorted().collect(Collectors.toList()));
+    }
+
+    // Releases all threads at the same moment and waits until every call has completed
+    private void runConcurrently(Runnable call) throws Exception {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                startSignal.await();
+                for (int j = 0; j < CALLS_PER_THREAD; j++) {
+                    call.run();
+                }
+                return null;
+            }));
+        }
+        startSignal.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    // The states are sent on the bus's sender threads, the last one may still be on its way
+    private static void awaitPublished(Queue<Integer> publishedLevels, int level) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!publishedLevels.contains(level) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(publishedLevels.contains(level));
+    }
+
+    private int fuelLevelInDatabase() {
+        return jdbcTemplate.queryForObject("select fuel_level from fuel_tank where id = ?", Integer.class, car.getFuelTank().getId());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.car.service;
+
+import com.example.car.entity.Car;
+import com.example.car.messages.MessageCollector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "car.simulation.enabled=true",
+        "car.simulation.tick-interval-ms=3600000",
+        "car.simulation.fuel-per-tick=20",
+        "car.simulation.cars-per-transaction=2"
+})
+class FuelConsumptionSimulatorTest {
+
+    @Autowired
+    private FuelConsumptionSimulator fuelConsumptionSimulator;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Car runningCar;
+    private Car parkedCar;
+
+    @BeforeEach
+    void setUp() {
+        runningCar = carService.createCar();
+        parkedCar = carService.createCar();
+        carService.startCar(runningCar.getId());
+    }
+
+    @Test
+    void tick_shouldOnlyConsumeFuelOfRunningCars() {
+        // Arrange
+        int fuelBefore = carService.checkFuelLevel(runningCar.getId());
+
+        // Act
+        int simulated = fuelConsumptionSimulator.tick();
+
+        // Assert
+        assertTrue(simulated >= 1);
+        assertEquals(fuelBefore - 20, carService.checkFuelLevel(runningCar.getId()));
+        assertEquals(50, carService.checkFuelLevel(parkedCar.getId()));
+        assertTrue(carService.checkIsEngineRunning(runningCar.getId()));
+    }
+
+    @Test
+    void tick_whenTankRunsDry_shouldStopTheEngineAtZero() {
+        // Act, 45 liters after the start last for two ticks and a partial third
+        for (int i = 0; i < 3; i++) {
+            fuelConsumptionSimulator.tick();
+        }
+
+        // Assert
+        assertEquals(0, carService.checkFuelLevel(runningCar.getId()));
+        assertFalse(carService.checkIsEngineRunning(runningCar.getId()));
+        assertEquals(MessageCollector.FUEL_RAN_OUT, jdbcTemplate.queryForObject(
+                "select d.current_message from car c join dashboard d on d.id = c.dashboard where c.id = ?",
+                String.class, runningCar.getId()));
+    }
+
+    @Test
+    void claimTick_whenAnotherNodeClaimedTheTick_shouldBeRefused() {
+        // Arrange
+        long tickNumber = jdbcTemplate.queryForObject("select last_tick from simulation_tick where id = 1", Long.class) + 1;
+
+        // Act
+        boolean claimed = fuelConsumptionSimulator.claimTick(tickNumber);
+        boolean claimedAgain = fuelConsumptionSimulator.claimTick(tickNumber);
+        boolean earlierClaimed = fuelConsumptionSimulator.claimTick(tickNumber - 1);
+        boolean nextClaimed = fuelConsumptionSimulator.claimTick(tickNumber + 1);
+
+        // Assert
+        assertTrue(claimed);
+        assertFalse(claimedAgain);
+        assertFalse(earlierClaimed);
+        assertTrue(nextClaimed);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.car.service;
+
+import com.example.car.dto.FleetTelemetry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuelTelemetryTest {
+
+    private static final long START_SECOND = 1_700_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(START_SECOND);
+    private final FuelTelemetry telemetry = new FuelTelemetry(null, clock::get, 60, 10, 10, 0);
+
+    @Test
+    void snapshot_shouldOnlyCountTheSecondsOfTheWindow() {
+        // Arrange
+        telemetry.started(50, 45);
+        clock.addAndGet(10);
+        telemetry.started(45, 40);
+        telemetry.startFailed();
+        telemetry.refueled(20, 40, 60);
+        clock.addAndGet(20);
+        telemetry.refueled(10, 60, 70);
+
+        // Act
+        FleetTelemetry all = telemetry.snapshot(60);
+        FleetTelemetry lastTwentySeconds = telemetry.snapshot(20);
+
+        // Assert
+        assertEquals(2, all.getStarts());
+        assertEquals(1, all.getStartFailures());
+        assertEquals(1.0 / 3, all.getStartFailureRate(), 1e-9);
+        assertEquals(2.0, all.getStartsPerMinute(), 1e-9);
+        assertEquals(2, all.getRefuels());
+        assertEquals(30, all.getRefueledLiters());
+        assertEquals(30.0, all.getRefueledLitersPerMinute(), 1e-9);
+
+        assertEquals(0, lastTwentySeconds.getStarts());
+        assertEquals(0, lastTwentySeconds.getStartFailureRate());
+        assertEquals(1, lastTwentySeconds.getRefuels());
+        assertEquals(30.0, lastTwentySeconds.getRefueledLitersPerMinute(), 1e-9);
+    }
+
+    @Test
+    void slot_shouldStartFromZeroOnTheNextLapOfTheRing() {
+        // Arrange
+        telemetry.started(50, 45);
+        telemetry.started(45, 40);
+
+        // Act, the same slot a full window later
+        clock.addAndGet(60);
+        telemetry.started(40, 35);
+
+        // Assert
+        assertEquals(1, telemetry.snapshot(60).getStarts());
+        assertEquals(1, telemetry.snapshot(1).getStarts());
+    }
+
+    @Test
+    void fuelLevels_shouldFollowTheChangesOfTheCars() {
+        // Arrange
+        telemetry.carsCreated(3, 50);
+
+        // Act
+        telemetry.started(50, 45);
+        telemetry.refueled(500, 50, 550);
+        telemetry.started(45, 40);
+
+        // Assert
+        FleetTelemetry snapshot = telemetry.snapshot(60);
+        assertEquals(10, snapshot.getFuelLevelBucketWidth());
+        assertArrayEquals(new long[]{0, 0, 0, 0, 1, 1, 0, 0, 0, 1}, snapshot.getFuelLevelCounts());
+    }
+
+    @Test
+    void concurrentRecording_shouldNotLoseCounts() throws InterruptedException {
+        // Arrange
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                for (int start = 0; start < 10_000; start++) {
+                    telemetry.started(50, 45);
+                    if (start % 1000 == 0) {
+                        clock.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        // Act
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertEquals(40_000, telemetry.snapshot(60).getStarts());
+    }
+
+    @Test
+    void snapshot_withWindowLongerThanTheRing_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> telemetry.snapshot(61));
+        assertThrows(IllegalArgumentException.class, () -> telemetry.snapshot(0));
+    }
+}
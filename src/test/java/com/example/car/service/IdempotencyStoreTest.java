@@ -0,0 +1,146 @@
+package com.example.car.service;
+
+import com.example.car.dto.CarResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "car.idempotency.database.enabled=true")
+class IdempotencyStoreTest {
+
+    private static final TypeReference<CarResponse> CAR_RESPONSE = new TypeReference<>() {
+    };
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void execute_whenMemoryWasLost_shouldReplayTheResponseFromTheDatabase() {
+        // Arrange
+        String key = UUID.randomUUID().toString();
+        CarResponse response = new CarResponse(1L, true, 45, "Car started successfully.");
+        idempotencyStore.execute(key, "start:1", CAR_RESPONSE, () -> response);
+        IdempotencyStore restartedStore = newNode(60_000);
+        AtomicInteger executions = new AtomicInteger();
+
+        // Act
+        CarResponse replayed = restartedStore.execute(key, "start:1", CAR_RESPONSE, () -> {
+            executions.incrementAndGet();
+            return response;
+        });
+
+        // Assert
+        assertEquals(response, replayed);
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void execute_whenRequestFails_shouldNotRecordIt() {
+        // Arrange
+        String key = UUID.randomUUID().toString();
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> idempotencyStore.execute(key, "stop:1", CAR_RESPONSE, () -> {
+            throw new IllegalStateException();
+        }));
+        CarResponse response = idempotencyStore.execute(key, "stop:1", CAR_RESPONSE, () -> new CarResponse(1L, false, 50, "Car stopped."));
+
+        // Assert
+        assertFalse(response.isRunning());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from idempotency_key where idempotency_key = ?", Integer.class, key));
+    }
+
+    @Test
+    void execute_whenAnotherNodeRunsTheKey_shouldWaitAndReplayItsResponse() throws Exception {
+        // Arrange, two nodes share the table but not their memory
+        String key = UUID.randomUUID().toString();
+        IdempotencyStore otherNode = newNode(60_000);
+        CarResponse response = new CarResponse(1L, true, 45, "Car started successfully.");
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<CarResponse> first = CompletableFuture.supplyAsync(() -> idempotencyStore.execute(key, "start:1", CAR_RESPONSE, () -> {
+            running.countDown();
+            await(finish);
+            return response;
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        AtomicInteger executions = new AtomicInteger();
+
+        // Act, the second node finds the key claimed and waits until the first one has answered
+        CompletableFuture<CarResponse> second = CompletableFuture.supplyAsync(() -> otherNode.execute(key, "start:1", CAR_RESPONSE, () -> {
+            executions.incrementAndGet();
+            return new CarResponse(1L, true, 40, "Car started successfully.");
+        }));
+        Thread.sleep(100);
+        assertFalse(second.isDone());
+        finish.countDown();
+
+        // Assert
+        assertEquals(response, first.get(5, TimeUnit.SECONDS));
+        assertEquals(response, second.get(5, TimeUnit.SECONDS));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void execute_whenAnotherNodeRunsTheKeyForADifferentRequest_shouldRejectWithoutWaiting() {
+        // Arrange
+        String key = UUID.randomUUID().toString();
+        jdbcTemplate.update("insert into idempotency_key (idempotency_key, fingerprint, response, created_at) values (?, ?, null, ?)",
+                key, "start:1", Timestamp.from(Instant.now()));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> idempotencyStore.execute(key, "stop:1", CAR_RESPONSE,
+                () -> new CarResponse(1L, false, 50, "Car stopped.")));
+    }
+
+    @Test
+    void execute_whenTheClaimingNodeNeverAnswers_shouldTakeTheKeyOver() {
+        // Arrange, a claim left behind by a node that crashed while running the request
+        String key = UUID.randomUUID().toString();
+        jdbcTemplate.update("insert into idempotency_key (idempotency_key, fingerprint, response, created_at) values (?, ?, null, ?)",
+                key, "stop:1", Timestamp.from(Instant.now()));
+        IdempotencyStore node = newNode(100);
+
+        // Act
+        CarResponse response = node.execute(key, "stop:1", CAR_RESPONSE, () -> new CarResponse(1L, false, 50, "Car stopped."));
+
+        // Assert
+        assertEquals("Car stopped.", response.getMessage());
+        assertNotNull(jdbcTemplate.queryForObject("select response from idempotency_key where idempotency_key = ?", String.class, key));
+    }
+
+    private IdempotencyStore newNode(long claimTimeoutMillis) {
+        return new IdempotencyStore(meterRegistry, jdbcTemplate, objectMapper, 100, 60_000, true, claimTimeoutMillis);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
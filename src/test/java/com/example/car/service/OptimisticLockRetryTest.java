@@ -0,0 +1,93 @@
+package com.example.car.service;
+
+import com.example.car.entity.Car;
+import com.example.car.repository.CarRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "car.optimistic-lock.max-attempts=3",
+        "car.optimistic-lock.backoff-ms=1"
+})
+class OptimisticLockRetryTest {
+
+    @Autowired
+    private OptimisticLockRetry optimisticLockRetry;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void execute_whenRowChangesBeforeCommit_shouldRetryOnFreshState() {
+        // Arrange
+        Long carId = carService.createCar().getId();
+        TransactionTemplate concurrentWriter = new TransactionTemplate(transactionManager);
+        concurrentWriter.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger attempts = new AtomicInteger();
+        double retriesBefore = counter("car.optimistic-lock.retries", "test-engine");
+
+        // Act
+        Car car = optimisticLockRetry.execute("test-engine", () -> {
+            Car loaded = carRepository.findWithPartsById(carId).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                // another writer commits a change of the engine after it has been loaded
+                concurrentWriter.executeWithoutResult(status -> jdbcTemplate.update(
+                        "update engine set version = version + 1 where id = ?", loaded.getEngine().getId()));
+            }
+            loaded.getEngine().setRunning(true);
+            return loaded;
+        });
+
+        // Assert
+        assertEquals(2, attempts.get());
+        assertTrue(jdbcTemplate.queryForObject("select running from engine where id = ?", Boolean.class, car.getEngine().getId()));
+        assertEquals(2L, jdbcTemplate.queryForObject("select version from engine where id = ?", Long.class, car.getEngine().getId()));
+        assertEquals(retriesBefore + 1, counter("car.optimistic-lock.retries", "test-engine"));
+    }
+
+    @Test
+    void execute_whenConflictPersists_shouldGiveUpAfterMaxAttempts() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> optimisticLockRetry.execute("test-hot", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Car.class, 1L);
+        }));
+        assertEquals(3, attempts.get());
+        assertEquals(3, counter("car.optimistic-lock.conflicts", "test-hot"));
+        assertEquals(2, counter("car.optimistic-lock.retries", "test-hot"));
+        assertEquals(1, counter("car.optimistic-lock.exhausted", "test-hot"));
+    }
+
+    private double counter(String name, String operation) {
+        return meterRegistry.find(name).tag("operation", operation).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+}